@@ -0,0 +1,18 @@
+-- Lets documents uploaded with the same content share one stored file. Databases created by older versions
+-- have a unique key on document_description.file_path, which the schema update does not drop.
+--
+-- Run it once, with the application stopped:
+--   mysql -u root -p legalconsultation < etc/db/shared-file-path-migration.sql
+--
+-- The unique key was named by Hibernate, so it is looked up. The plain indexes on file_path and content_hash
+-- are added by the schema update when the application starts.
+
+SET @unique_key = (SELECT INDEX_NAME FROM information_schema.STATISTICS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'document_description'
+                     AND COLUMN_NAME = 'file_path' AND NON_UNIQUE = 0
+                   LIMIT 1);
+SET @statement = IF(@unique_key IS NULL, 'DO 0',
+                    CONCAT('ALTER TABLE document_description DROP INDEX `', @unique_key, '`'));
+PREPARE drop_unique_key FROM @statement;
+EXECUTE drop_unique_key;
+DEALLOCATE PREPARE drop_unique_key;
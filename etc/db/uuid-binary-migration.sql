@@ -0,0 +1,65 @@
+-- Converts the ids of a database created by versions that stored UUIDs as CHAR strings to the BINARY(16)
+-- columns they are mapped to now. Ids keep their values, only the storage changes; ids created afterwards
+-- are time ordered.
+--
+-- Run it once, with the application stopped and after taking a backup:
+--   mysql -u root -p legalconsultation < etc/db/uuid-binary-migration.sql
+--
+-- Every column first becomes VARBINARY so it can hold both forms, is rewritten from the 36 character string
+-- to its 16 bytes, and is then narrowed. The foreign key checks are turned off while the keys and the
+-- columns referencing them do not have the same type yet.
+
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE users MODIFY id VARBINARY(36) NOT NULL;
+UPDATE users SET id = UNHEX(REPLACE(id, '-', ''));
+ALTER TABLE users MODIFY id BINARY(16) NOT NULL;
+
+ALTER TABLE applicationusers MODIFY user_id VARBINARY(36) NOT NULL;
+UPDATE applicationusers SET user_id = UNHEX(REPLACE(user_id, '-', ''));
+ALTER TABLE applicationusers MODIFY user_id BINARY(16) NOT NULL;
+
+ALTER TABLE document_description MODIFY id VARBINARY(36) NOT NULL;
+UPDATE document_description SET id = UNHEX(REPLACE(id, '-', ''));
+ALTER TABLE document_description MODIFY id BINARY(16) NOT NULL;
+
+ALTER TABLE document_nodes
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY parent VARBINARY(36),
+    MODIFY document_id VARBINARY(36);
+UPDATE document_nodes SET
+    id = UNHEX(REPLACE(id, '-', '')),
+    parent = UNHEX(REPLACE(parent, '-', '')),
+    document_id = UNHEX(REPLACE(document_id, '-', ''));
+ALTER TABLE document_nodes
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY parent BINARY(16),
+    MODIFY document_id BINARY(16);
+
+ALTER TABLE comments
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY document_node_id VARBINARY(36),
+    MODIFY owner_id VARBINARY(36);
+UPDATE comments SET
+    id = UNHEX(REPLACE(id, '-', '')),
+    document_node_id = UNHEX(REPLACE(document_node_id, '-', '')),
+    owner_id = UNHEX(REPLACE(owner_id, '-', ''));
+ALTER TABLE comments
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY document_node_id BINARY(16),
+    MODIFY owner_id BINARY(16);
+
+ALTER TABLE consolidated_document
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY metadata_id VARBINARY(36) NOT NULL,
+    MODIFY document_node_id VARBINARY(36) NOT NULL;
+UPDATE consolidated_document SET
+    id = UNHEX(REPLACE(id, '-', '')),
+    metadata_id = UNHEX(REPLACE(metadata_id, '-', '')),
+    document_node_id = UNHEX(REPLACE(document_node_id, '-', ''));
+ALTER TABLE consolidated_document
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY metadata_id BINARY(16) NOT NULL,
+    MODIFY document_node_id BINARY(16) NOT NULL;
+
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,159 @@
+package com.code4ro.legalconsultation.benchmark;
+
+import com.code4ro.legalconsultation.LegalConsultationApplication;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeRepository;
+import com.code4ro.legalconsultation.service.impl.pdf.ParsedDocumentCache;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParsingContext;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.BasicOARPdfReader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving a parsed document tree by cascading it through JPA, as documents used to be saved, against the batched
+ * JDBC inserts. The database defaults to an in-memory H2; pass -p url=jdbc:mysql://... (plus -p username and
+ * -p password) to measure against MySQL. The nodes counter is reported in microseconds per node,
+ * which is the same number as milliseconds per thousand nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class DocumentNodeInsertBenchmark {
+    private static final String FIXTURE_HASH = "benchmark";
+
+    @Param({"jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1"})
+    public String url;
+
+    @Param({"root"})
+    public String username;
+
+    @Param({"root"})
+    public String password;
+
+    @Param({"rof_2018_pdf_1536138173"})
+    public String fixture;
+
+    private ConfigurableApplicationContext context;
+    private DocumentNodeRepository documentNodeRepository;
+    private DocumentNodeBatchRepository documentNodeBatchRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private ParsedDocumentCache parsedDocumentCache;
+    private int nodeCount;
+
+    private DocumentNode tree;
+
+    /**
+     * Document nodes written, reported next to the saved documents.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class NodeCounter {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(LegalConsultationApplication.class)
+                .properties(
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=" + username,
+                        "spring.datasource.password=" + password,
+                        "spring.datasource.driverClassName=" + getDriverClassName(),
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .run();
+        documentNodeRepository = context.getBean(DocumentNodeRepository.class);
+        documentNodeBatchRepository = context.getBean(DocumentNodeBatchRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        final DocumentNode parsedTree;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("pdf/" + fixture + ".pdf");
+             PDDocument document = PDDocument.load(input)) {
+            parsedTree = context.getBean(DocumentParser.class)
+                    .parse(new DocumentParsingContext(context.getBean(BasicOARPdfReader.class).getContent(document)));
+        }
+        // the cache hands out a new, unsaved copy of the tree on every get
+        parsedDocumentCache = new ParsedDocumentCache(1);
+        parsedDocumentCache.put(FIXTURE_HASH, parsedTree);
+        nodeCount = countNodes(parsedTree);
+    }
+
+    @Setup(Level.Invocation)
+    public void newTree() {
+        tree = parsedDocumentCache.get(FIXTURE_HASH).orElseThrow(IllegalStateException::new);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteNodes() {
+        jdbcTemplate.update("UPDATE document_nodes SET parent = NULL");
+        jdbcTemplate.update("DELETE FROM document_nodes");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object cascade(final NodeCounter counter) {
+        counter.nodes += nodeCount;
+        return transactionTemplate.execute(status -> documentNodeRepository.save(tree));
+    }
+
+    @Benchmark
+    public Object batch(final NodeCounter counter) {
+        counter.nodes += nodeCount;
+        return transactionTemplate.execute(status -> documentNodeBatchRepository.insertTree(tree));
+    }
+
+    private String getDriverClassName() {
+        return url.startsWith("jdbc:mysql:") ? "com.mysql.cj.jdbc.Driver" : "org.h2.Driver";
+    }
+
+    private int countNodes(final DocumentNode root) {
+        int count = 0;
+        final Deque<DocumentNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final DocumentNode node = pending.pop();
+            count++;
+            node.getChildren().forEach(pending::push);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,61 @@
+package com.code4ro.legalconsultation.benchmark;
+
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParsingContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build the outline of each fixture from its parsed tree, as done on upload, and to write a cached
+ * outline as JSON, which is all the outline endpoint does on a hit. The number of nodes and the estimated
+ * size of every outline are printed once the fixture is parsed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class DocumentOutlineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Outline {
+        DocumentNode tree;
+        DocumentOutline outline;
+        ObjectMapper objectMapper;
+
+        @Setup(Level.Trial)
+        public void setUp(final PdfFixture fixture) {
+            tree = fixture.documentParser.parse(new DocumentParsingContext(fixture.content));
+            outline = DocumentOutline.of(tree);
+            objectMapper = new ObjectMapper();
+            System.out.printf("%n%s: %d nodes, outline of about %d bytes%n",
+                    fixture.fixture, outline.size(), outline.getSizeInBytes());
+        }
+    }
+
+    @Benchmark
+    public DocumentOutline build(final Outline outline) {
+        return DocumentOutline.of(outline.tree);
+    }
+
+    // the bytes go nowhere, so only the serialization is measured
+    @Benchmark
+    public void write(final Outline outline) throws IOException {
+        outline.objectMapper.writeValue(OutputStream.nullOutputStream(), outline.outline);
+    }
+}
@@ -0,0 +1,168 @@
+package com.code4ro.legalconsultation.benchmark;
+
+import com.code4ro.legalconsultation.model.persistence.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a table shaped like comments with {@code rows} rows, once with the ids stored as they used to be
+ * (random UUIDs as CHAR(36)) and once as they are now (time ordered UUIDs as BINARY(16)), plus random UUIDs
+ * as BINARY(16) to tell the two effects apart. The score is the time to insert all the rows; on MySQL the
+ * size of the primary key and of the secondary indexes is printed after every iteration. Runs against an
+ * in-memory H2 by default, pass -p url=jdbc:mysql://... (plus -p username and -p password) for MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class IdStorageBenchmark {
+    private static final String TABLE = "benchmark_comments";
+    private static final int BATCH_SIZE = 1000;
+    private static final int DOCUMENT_NODES = 10_000;
+    private static final int OWNERS = 1000;
+
+    @Param({"jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1"})
+    public String url;
+
+    @Param({"root"})
+    public String username;
+
+    @Param({"root"})
+    public String password;
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param
+    public IdStorage storage;
+
+    private Connection connection;
+    private Object[] documentNodeIds;
+    private Object[] ownerIds;
+
+    public enum IdStorage {
+        CHAR_RANDOM("CHAR(36)"),
+        BINARY_RANDOM("BINARY(16)"),
+        BINARY_TIME_ORDERED("BINARY(16)");
+
+        private final String columnType;
+
+        IdStorage(final String columnType) {
+            this.columnType = columnType;
+        }
+
+        Object newId() {
+            switch (this) {
+                case CHAR_RANDOM:
+                    return UUID.randomUUID().toString();
+                case BINARY_RANDOM:
+                    return TimeOrderedUuidGenerator.toBytes(UUID.randomUUID());
+                default:
+                    return TimeOrderedUuidGenerator.toBytes(TimeOrderedUuidGenerator.generate());
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(url, username, password);
+        connection.setAutoCommit(false);
+        documentNodeIds = newIds(DOCUMENT_NODES);
+        ownerIds = newIds(OWNERS);
+    }
+
+    @Setup(Level.Iteration)
+    public void createTable() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (" +
+                    "id " + storage.columnType + " NOT NULL, " +
+                    "document_node_id " + storage.columnType + ", " +
+                    "owner_id " + storage.columnType + ", " +
+                    "text VARCHAR(255), " +
+                    "PRIMARY KEY (id))");
+            statement.execute("CREATE INDEX idx_" + TABLE + "_document_node_id ON " + TABLE + " (document_node_id)");
+            statement.execute("CREATE INDEX idx_" + TABLE + "_owner_id ON " + TABLE + " (owner_id)");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printIndexSizes() throws SQLException {
+        if (!url.startsWith("jdbc:mysql:")) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE " + TABLE);
+            // InnoDB clusters the rows in the primary key, so its size is the data length
+            try (ResultSet sizes = statement.executeQuery("SELECT data_length, index_length " +
+                    "FROM information_schema.TABLES WHERE table_schema = DATABASE() AND table_name = '" + TABLE + "'")) {
+                sizes.next();
+                System.out.printf("%n%s: primary key %d MB, secondary indexes %d MB%n",
+                        storage, sizes.getLong(1) >> 20, sizes.getLong(2) >> 20);
+            }
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + TABLE +
+                " (id, document_node_id, owner_id, text) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                statement.setObject(1, storage.newId());
+                statement.setObject(2, documentNodeIds[i % DOCUMENT_NODES]);
+                statement.setObject(3, ownerIds[i % OWNERS]);
+                statement.setString(4, "comment " + i);
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        return rows;
+    }
+
+    private Object[] newIds(final int count) {
+        final Object[] ids = new Object[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = storage.newId();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,213 @@
+package com.code4ro.legalconsultation.benchmark;
+
+import com.code4ro.legalconsultation.model.dto.BaseEntityDto;
+import com.code4ro.legalconsultation.model.dto.CommentDto;
+import com.code4ro.legalconsultation.model.dto.DocumentNodeDto;
+import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.dto.UserDto;
+import com.code4ro.legalconsultation.model.persistence.BaseEntity;
+import com.code4ro.legalconsultation.model.persistence.Comment;
+import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.model.persistence.DocumentType;
+import com.code4ro.legalconsultation.model.persistence.User;
+import com.code4ro.legalconsultation.model.persistence.UserRole;
+import com.code4ro.legalconsultation.service.api.MapperService;
+import com.code4ro.legalconsultation.service.impl.MapperServiceImpl;
+import org.modelmapper.AbstractConverter;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Maps what the api returns most often, a page of users, a page of comments, a document metadata and a whole
+ * document tree, once through ModelMapper configured as the mapper service used to be and once through the hand
+ * written mappers. Run with the GC profiler (the benchmark profile does) to compare the bytes allocated per
+ * operation, gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MapperBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int CHAPTERS = 20;
+    private static final int ARTICLES_PER_CHAPTER = 15;
+
+    @Param
+    public Mapper mapper;
+
+    private MapperService mapperService;
+    private Page<User> users;
+    private Page<Comment> comments;
+    private DocumentViewDto documentView;
+    private DocumentNode document;
+
+    public enum Mapper {
+        MODEL_MAPPER,
+        HAND_WRITTEN
+    }
+
+    @Setup
+    public void setUp() {
+        mapperService = mapper == Mapper.MODEL_MAPPER ? new ModelMapperService() : new MapperServiceImpl();
+        users = new PageImpl<>(createList(this::createUser));
+        comments = new PageImpl<>(createList(this::createComment));
+        documentView = new DocumentViewDto("Lege privind", BigInteger.valueOf(1024), "Guvernul Romaniei",
+                DocumentType.Lege, new Date(), new Date());
+        document = createDocument();
+    }
+
+    @Benchmark
+    public Page<UserDto> userPage() {
+        return mapperService.mapPage(users, UserDto.class);
+    }
+
+    @Benchmark
+    public Page<CommentDto> commentPage() {
+        return mapperService.mapPage(comments, CommentDto.class);
+    }
+
+    @Benchmark
+    public DocumentMetadata documentMetadata() {
+        return mapperService.map(documentView, DocumentMetadata.class);
+    }
+
+    // CHAPTERS * (ARTICLES_PER_CHAPTER + 1) + 1 nodes
+    @Benchmark
+    public DocumentNodeDto documentTree() {
+        return mapperService.map(document, DocumentNodeDto.class);
+    }
+
+    private <T> List<T> createList(final IntFunction<T> factory) {
+        final List<T> list = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            list.add(factory.apply(i));
+        }
+        return list;
+    }
+
+    private User createUser(final int index) {
+        final User user = new User("user" + index + "@code4.ro", UserRole.CONTRIBUTOR);
+        user.setId(UUID.randomUUID());
+        user.setFirstName("First " + index);
+        user.setLastName("Last " + index);
+        user.setPhoneNumber("0700000" + index);
+        user.setDistrict("Bucuresti");
+        user.setOrganisation("Code4Ro");
+        return user;
+    }
+
+    private Comment createComment(final int index) {
+        final Comment comment = new Comment();
+        comment.setId(UUID.randomUUID());
+        comment.setText("Comentariul " + index);
+        comment.setLastEditDateTime(new Date());
+        return comment;
+    }
+
+    private DocumentNode createDocument() {
+        final DocumentNode root = createNode(DocumentNodeType.DOCUMENT, "Lege");
+        final List<DocumentNode> chapters = new ArrayList<>(CHAPTERS);
+        for (int i = 0; i < CHAPTERS; i++) {
+            final DocumentNode chapter = createNode(DocumentNodeType.CHAPTER, "Capitolul " + i);
+            final List<DocumentNode> articles = new ArrayList<>(ARTICLES_PER_CHAPTER);
+            for (int j = 0; j < ARTICLES_PER_CHAPTER; j++) {
+                final DocumentNode article = createNode(DocumentNodeType.ARTICLE, "Articolul " + j);
+                article.setContent("Continutul articolului " + j + " din capitolul " + i);
+                article.setCommentCount(j);
+                articles.add(article);
+            }
+            chapter.setChildren(articles);
+            chapters.add(chapter);
+        }
+        root.setChildren(chapters);
+        return root;
+    }
+
+    private DocumentNode createNode(final DocumentNodeType type, final String title) {
+        final DocumentNode node = new DocumentNode();
+        node.setId(UUID.randomUUID());
+        node.setDocumentNodeType(type);
+        node.setTitle(title);
+        return node;
+    }
+
+    /**
+     * The mapper service as it was before the hand written mappers: every pair goes through ModelMapper's
+     * type maps, and document nodes through a converter that maps the children back through the service.
+     */
+    private static class ModelMapperService implements MapperService {
+        private final ModelMapper modelMapper = new ModelMapper();
+
+        ModelMapperService() {
+            modelMapper.createTypeMap(BaseEntity.class, BaseEntityDto.class)
+                    .addMapping(BaseEntity::getId, BaseEntityDto::setId);
+            modelMapper.createTypeMap(BaseEntityDto.class, BaseEntity.class)
+                    .addMapping(BaseEntityDto::getId, BaseEntity::setId);
+            modelMapper.createTypeMap(User.class, UserDto.class)
+                    .includeBase(BaseEntity.class, BaseEntityDto.class);
+            modelMapper.createTypeMap(UserDto.class, User.class)
+                    .includeBase(BaseEntityDto.class, BaseEntity.class);
+            modelMapper.createTypeMap(DocumentMetadata.class, DocumentViewDto.class);
+            modelMapper.createTypeMap(DocumentViewDto.class, DocumentMetadata.class);
+            modelMapper.createTypeMap(DocumentNode.class, DocumentNodeDto.class);
+            modelMapper.addConverter(new AbstractConverter<DocumentNode, DocumentNodeDto>() {
+                @Override
+                protected DocumentNodeDto convert(final DocumentNode documentNode) {
+                    final DocumentNodeDto dto = new DocumentNodeDto();
+                    dto.setId(documentNode.getId());
+                    dto.setChildren(mapList(documentNode.getChildren(), DocumentNodeDto.class));
+                    dto.setDocumentNodeType(documentNode.getDocumentNodeType());
+                    dto.setTitle(documentNode.getTitle());
+                    dto.setContent(documentNode.getContent());
+                    dto.setNumberOfComments(BigInteger.valueOf(documentNode.getCommentCount()));
+                    return dto;
+                }
+            });
+        }
+
+        @Override
+        public <T> T map(final Object source, final Class<T> targetType) {
+            return source != null ? modelMapper.map(source, targetType) : null;
+        }
+
+        @Override
+        public <T> List<T> mapList(final List<?> sourceList, final Class<? extends T> targetClass) {
+            if (sourceList == null) {
+                return new ArrayList<>();
+            }
+            return sourceList.stream()
+                    .map(listElement -> modelMapper.map(listElement, targetClass))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public <T> Page<T> mapPage(final Page<?> sourcePage, final Class<? extends T> targetClass) {
+            return sourcePage.map(pageElement -> modelMapper.map(pageElement, targetClass));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.code4ro.legalconsultation.benchmark;
+
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.AlignmentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ArticleParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ChapterParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentNodeParserFactory;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ParagraphParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.SectionParser;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.BasicOARPdfReader;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFBoldTextStripperPool;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * One of the test PDFs, together with the reader and parsers wired the way the application wires them.
+ * Every stage is prepared up front so each benchmark only measures its own stage.
+ */
+@State(Scope.Benchmark)
+public class PdfFixture {
+    static final String LINE_SEPARATOR = "\\r\\n|\\n";
+    // the fewest threads that split the pages; app.pdf.extractionThreads defaults to one per core
+    private static final int EXTRACTION_THREADS = 2;
+
+    @Param({
+            "codul_deontologic_al_oar_2011_pdf_1445359410",
+            "regulament_cadru_2018_pdf_1536138396",
+            "rof_2018_pdf_1536138173"})
+    public String fixture;
+
+    @Param({"8"})
+    public int pagesPerChunk;
+
+    byte[] pdf;
+    PDDocument document;
+    PDFContent content;
+    String[] lines;
+    BasicOARPdfReader pdfReader;
+    DocumentParser documentParser;
+
+    private AnnotationConfigApplicationContext parsers;
+    private ForkJoinPool extractionPool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdf = readResource("pdf/" + fixture + ".pdf");
+        extractionPool = new ForkJoinPool(EXTRACTION_THREADS);
+        pdfReader = new BasicOARPdfReader(new PDFBoldTextStripperPool(), pagesPerChunk, extractionPool);
+        parsers = new AnnotationConfigApplicationContext(
+                DocumentParser.class, ChapterParser.class, SectionParser.class, ArticleParser.class,
+                ParagraphParser.class, AlignmentParser.class, DocumentNodeParserFactory.class);
+        documentParser = parsers.getBean(DocumentParser.class);
+
+        document = PDDocument.load(pdf);
+        content = pdfReader.getContent(document);
+        lines = content.getText().split(LINE_SEPARATOR);
+        checkExtractedText();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        document.close();
+        parsers.close();
+        extractionPool.shutdown();
+    }
+
+    // numbers measured on a reader that no longer extracts the expected text would be meaningless
+    private void checkExtractedText() throws IOException {
+        final String expected = new String(readResource("pdf/" + fixture + ".txt"), StandardCharsets.UTF_8);
+        if (!expected.replaceAll("\\s", "").equals(content.getText().replaceAll("\\s", ""))) {
+            throw new IllegalStateException("Extracted text of " + fixture + " does not match " + fixture + ".txt");
+        }
+    }
+
+    private byte[] readResource(final String name) throws IOException {
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(name)) {
+            if (input == null) {
+                throw new IOException("Missing benchmark fixture " + name);
+            }
+            return input.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.code4ro.legalconsultation.benchmark;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentLexer;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParsingContext;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.TokenStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each stage of turning an uploaded PDF into a document tree, and of the whole pipeline.
+ * Run with the GC profiler (the benchmark profile does) to get the allocation rate of every stage.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PdfParsingBenchmark {
+
+    /**
+     * Lines of document text pushed through the pipeline, reported next to the operations as lines per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LineCounter {
+        public long lines;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            lines = 0;
+        }
+    }
+
+    @Benchmark
+    public int load(final PdfFixture fixture) throws IOException {
+        try (PDDocument document = PDDocument.load(fixture.pdf)) {
+            return document.getNumberOfPages();
+        }
+    }
+
+    // text extraction, bold line marking included. Both start from a freshly loaded document, as an upload does:
+    // a document read before has its fonts cached, the copies of the parallel extraction never have
+    @Benchmark
+    public PDFContent extract(final PdfFixture fixture) throws IOException {
+        try (PDDocument document = PDDocument.load(fixture.pdf)) {
+            return fixture.pdfReader.getContent(document);
+        }
+    }
+
+    @Benchmark
+    public PDFContent extractParallel(final PdfFixture fixture) throws IOException {
+        try (PDDocument document = PDDocument.load(fixture.pdf)) {
+            return fixture.pdfReader.getContent(document, () -> PDDocument.load(fixture.pdf));
+        }
+    }
+
+    @Benchmark
+    public TokenStream classifyLines(final PdfFixture fixture) {
+        return DocumentLexer.lex(fixture.lines);
+    }
+
+    // lexing included, as the parsing context lexes the text it is built from
+    @Benchmark
+    public DocumentNode buildTree(final PdfFixture fixture) {
+        return fixture.documentParser.parse(new DocumentParsingContext(fixture.content));
+    }
+
+    @Benchmark
+    public DocumentNode endToEnd(final PdfFixture fixture, final LineCounter counter) throws IOException {
+        try (PDDocument document = PDDocument.load(fixture.pdf)) {
+            final PDFContent content = fixture.pdfReader.getContent(document);
+            counter.lines += fixture.lines.length;
+            return fixture.documentParser.parse(new DocumentParsingContext(content));
+        }
+    }
+}
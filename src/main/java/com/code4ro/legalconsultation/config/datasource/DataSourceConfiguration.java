@@ -0,0 +1,60 @@
+package com.code4ro.legalconsultation.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfiguration {
+
+    /**
+     * routes read-only transactions to the pool of app.datasource.replica, when it is set, and everything
+     * else to the pool of spring.datasource. The replica pool takes the spring.datasource.hikari settings of
+     * the primary, overridden by app.datasource.replica.hikari; both pools report their metrics as hikaricp.*
+     * tagged by pool name.
+     * The pools are not beans of their own, as boot's data source initializer expects a single data source.
+     */
+    @Bean
+    public DataSource dataSource(final DataSourceProperties properties,
+                                 final Environment environment,
+                                 @Value("${app.datasource.replica.url}") final String replicaUrl,
+                                 @Value("${app.datasource.replica.username}") final String replicaUsername,
+                                 @Value("${app.datasource.replica.password}") final String replicaPassword,
+                                 @Value("${app.datasource.replica.maxLagMillis}") final long maxLagMillis,
+                                 final MeterRegistry meterRegistry) {
+        final HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(meterRegistry);
+
+        if (StringUtils.isEmpty(replicaUrl)) {
+            return new ReadWriteRoutingDataSource(primary, primary, maxLagMillis, meterRegistry);
+        }
+
+        final HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        // sized and timed like the primary unless app.datasource.replica.hikari says otherwise
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        Binder.get(environment).bind("app.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMetricRegistry(meterRegistry);
+        return new ReadWriteRoutingDataSource(primary, replica, maxLagMillis, meterRegistry);
+    }
+}
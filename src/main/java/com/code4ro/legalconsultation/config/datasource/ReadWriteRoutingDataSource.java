@@ -0,0 +1,140 @@
+package com.code4ro.legalconsultation.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends the connections of read-only transactions to the replica and all the others to the primary.
+ * A user who committed a read-write transaction less than maxLagMillis ago keeps reading from the primary,
+ * so they see their own writes even when the replica lags behind.
+ * <p>
+ * A transaction is only marked read-only after it began, so the connection is fetched lazily, on the first
+ * statement, and routed then.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final Map<String, Counter> connectionCounters = new HashMap<>();
+
+    public ReadWriteRoutingDataSource(final DataSource primary,
+                                      final DataSource replica,
+                                      final long maxLagMillis,
+                                      final MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        for (final String pool : new String[]{PRIMARY, REPLICA}) {
+            connectionCounters.put(pool, Counter.builder("datasource.routing.connections")
+                    .description("Connections handed out by the read/write routing, per pool")
+                    .tag("pool", pool)
+                    .register(meterRegistry));
+        }
+
+        final Router router = new Router();
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (primary instanceof Closeable) {
+            ((Closeable) primary).close();
+        }
+        if (replica instanceof Closeable) {
+            ((Closeable) replica).close();
+        }
+    }
+
+    private String route() {
+        final boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        final String pool = readOnly && !wroteRecently() ? REPLICA : PRIMARY;
+        if (!readOnly && TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordWriteOnCommit();
+        }
+
+        connectionCounters.get(pool).increment();
+        return pool;
+    }
+
+    private boolean wroteRecently() {
+        final String user = getCurrentUser();
+        if (user == null || maxLagMillis <= 0) {
+            return false;
+        }
+
+        final Long lastWrite = lastWrites.get(user);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastWrite >= maxLagMillis) {
+            lastWrites.remove(user, lastWrite);
+            return false;
+        }
+        return true;
+    }
+
+    private void recordWriteOnCommit() {
+        final String user = getCurrentUser();
+        if (user == null || maxLagMillis <= 0) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                final long now = System.currentTimeMillis();
+                lastWrites.put(user, now);
+                evictExpiredWrites(now);
+            }
+        });
+    }
+
+    // users who wrote once and never read again would otherwise be kept for the life of the process;
+    // the map only holds the users who wrote within the last maxLagMillis
+    private void evictExpiredWrites(final long now) {
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= maxLagMillis);
+    }
+
+    int countRecentWriters() {
+        return lastWrites.size();
+    }
+
+    private String getCurrentUser() {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private class Router extends AbstractRoutingDataSource {
+        Router() {
+            final Map<Object, Object> targets = new HashMap<>();
+            targets.put(PRIMARY, primary);
+            targets.put(REPLICA, replica);
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(primary);
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return route();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.code4ro.legalconsultation.config.ingestion;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class IngestionConfiguration {
+    private static final String THREAD_NAME_PREFIX = "document-ingestion-";
+
+    /**
+     * bounded pool that runs the store - extract - parse - persist pipeline of asynchronous uploads;
+     * submissions beyond the queue capacity are rejected instead of piling up
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor documentIngestionExecutor(@Value("${app.ingestion.poolSize}") final int poolSize,
+                                                            @Value("${app.ingestion.queueCapacity}") final int queueCapacity) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
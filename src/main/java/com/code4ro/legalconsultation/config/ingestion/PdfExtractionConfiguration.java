@@ -0,0 +1,27 @@
+package com.code4ro.legalconsultation.config.ingestion;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Configuration
+public class PdfExtractionConfiguration {
+    private static final String THREAD_NAME_PREFIX = "pdf-extraction-";
+
+    /**
+     * threads shared by the parallel page extraction of all uploads, so the page ranges of concurrent uploads,
+     * each holding its own copy of the document, never run on more threads than this; one per core when not set
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool pdfExtractionPool(@Value("${app.pdf.extractionThreads}") final int extractionThreads) {
+        final int parallelism = extractionThreads > 0 ? extractionThreads : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(THREAD_NAME_PREFIX + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
@@ -0,0 +1,25 @@
+package com.code4ro.legalconsultation.config.persistence;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class DocumentDeletionConfiguration {
+    private static final String THREAD_NAME_PREFIX = "document-deletion-";
+
+    /**
+     * single thread that deletes the nodes and comments of large documents once their row is gone; the queue
+     * is unbounded, unlike an upload a deletion can no longer be turned down at that point
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor documentDeletionExecutor() {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
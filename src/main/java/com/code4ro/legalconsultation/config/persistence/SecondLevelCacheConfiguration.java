@@ -0,0 +1,94 @@
+package com.code4ro.legalconsultation.config.persistence;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+
+@Configuration
+public class SecondLevelCacheConfiguration {
+    private static final List<String> REGIONS = Arrays.asList(
+            DocumentNode.CACHE_REGION, DocumentNode.CHILDREN_CACHE_REGION, DocumentMetadata.CACHE_REGION);
+
+    /**
+     * regions of the hibernate second-level cache, bounded by number of entries; comments and users are
+     * written too often to be worth caching and have no region. A cache manager of its own per application
+     * context, the default JCache one is shared by the whole JVM.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${app.persistence.documentNodeCacheSize}") final long documentNodeCacheSize,
+                                                @Value("${app.persistence.documentMetadataCacheSize}") final long documentMetadataCacheSize) {
+        final Map<String, CacheConfiguration<?, ?>> regions = new HashMap<>();
+        regions.put(DocumentNode.CACHE_REGION, heapRegion(documentNodeCacheSize));
+        regions.put(DocumentNode.CHILDREN_CACHE_REGION, heapRegion(documentNodeCacheSize));
+        regions.put(DocumentMetadata.CACHE_REGION, heapRegion(documentMetadataCacheSize));
+
+        final EhcacheCachingProvider provider =
+                (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create("urn:second-level-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(regions, getClass().getClassLoader()));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(final CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    /**
+     * the hits and misses of every region are published as hibernate.second.level.cache.region.requests;
+     * boot only publishes them summed over all the regions
+     */
+    @Bean
+    public Cache secondLevelCache(final EntityManagerFactory entityManagerFactory, final MeterRegistry meterRegistry) {
+        final SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        final Statistics statistics = sessionFactory.getStatistics();
+        for (final String region : REGIONS) {
+            registerRequests(meterRegistry, statistics, region, "hit",
+                    stats -> stats.getDomainDataRegionStatistics(region).getHitCount());
+            registerRequests(meterRegistry, statistics, region, "miss",
+                    stats -> stats.getDomainDataRegionStatistics(region).getMissCount());
+        }
+        return sessionFactory.getCache();
+    }
+
+    private void registerRequests(final MeterRegistry registry,
+                                  final Statistics statistics,
+                                  final String region,
+                                  final String result,
+                                  final ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder("hibernate.second.level.cache.region.requests", statistics, count)
+                .description("Lookups in a region of the second-level cache")
+                .tags("region", region, "result", result)
+                .register(registry);
+    }
+
+    private CacheConfiguration<Object, Object> heapRegion(final long entries) {
+        return CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(entries))
+                .build();
+    }
+}
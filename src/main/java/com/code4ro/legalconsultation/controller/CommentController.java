@@ -1,6 +1,7 @@
 package com.code4ro.legalconsultation.controller;
 
 import com.code4ro.legalconsultation.model.dto.CommentDto;
+import com.code4ro.legalconsultation.model.dto.CursorPage;
 import com.code4ro.legalconsultation.service.api.CommentService;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -43,4 +44,12 @@ public class CommentController {
                                                     final Pageable pageable) {
         return ResponseEntity.ok(commentService.findAll(nodeId, pageable));
     }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<CommentDto>> findAllByCursor(@PathVariable final UUID nodeId,
+                                                                  @RequestParam(required = false) final String cursor,
+                                                                  @RequestParam(defaultValue = "${spring.data.web.pageable.default-page-size}") final int size,
+                                                                  @RequestParam(defaultValue = "false") final boolean count) {
+        return ResponseEntity.ok(commentService.findAll(nodeId, cursor, size, count));
+    }
 }
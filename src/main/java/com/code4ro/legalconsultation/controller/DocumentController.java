@@ -1,59 +1,99 @@
 package com.code4ro.legalconsultation.controller;
 
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionJobDto;
+import com.code4ro.legalconsultation.model.dto.DocumentMetadataDto;
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
 import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.dto.ResourceVersion;
 import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
 import com.code4ro.legalconsultation.model.persistence.DocumentType;
+import com.code4ro.legalconsultation.service.api.DocumentIngestionService;
 import com.code4ro.legalconsultation.service.api.DocumentService;
+import com.code4ro.legalconsultation.service.impl.ConsolidatedRenderMode;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import springfox.documentation.annotations.ApiIgnore;
 
 import java.math.BigInteger;
+import java.net.URI;
 import java.util.Date;
-import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping(value = "/api/document")
 public class DocumentController {
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     private final DocumentService documentService;
+    private final DocumentIngestionService documentIngestionService;
+    private final ConsolidatedRenderMode consolidatedRenderMode;
 
     @Autowired
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService,
+                              DocumentIngestionService documentIngestionService,
+                              @Value("${app.document.consolidatedRenderMode}") ConsolidatedRenderMode consolidatedRenderMode) {
         this.documentService = documentService;
+        this.documentIngestionService = documentIngestionService;
+        this.consolidatedRenderMode = consolidatedRenderMode;
     }
 
-    @ApiOperation(value = "Return document metadata for all documents in the platform",
-            response = List.class,
+    @ApiOperation(value = "Return a page of document metadata, sorted by dateOfReceipt or documentNumber",
+            response = Page.class,
             produces = MediaType.APPLICATION_JSON_VALUE)
     @GetMapping("")
-    public ResponseEntity<List<DocumentMetadata>> getAllDocuments() {
-        List<DocumentMetadata> documents = documentService.fetchAll();
-        return new ResponseEntity<>(documents, HttpStatus.OK);
+    public ResponseEntity<Page<DocumentMetadataDto>> getAllDocuments(
+            @ApiParam("Type of the documents being requested") @RequestParam(required = false) final DocumentType type,
+            @ApiParam("Initiator of the documents being requested") @RequestParam(required = false) final String initiator,
+            @ApiParam("Page object information being requested") final Pageable pageable,
+            @ApiIgnore final WebRequest request) {
+        return conditional(request, documentService.fetchListingVersion(type, initiator),
+                () -> documentService.fetchAll(type, initiator, pageable));
     }
 
     @ApiOperation(value = "Return document metadata for a single document in the platform based on id",
             response = DocumentMetadata.class,
             produces = MediaType.APPLICATION_JSON_VALUE)
     @GetMapping("/{id}")
-    public ResponseEntity getDocumentById(@ApiParam("Id of the document object being requested") @PathVariable UUID id) {
-        return ResponseEntity.ok(documentService.fetchOne(id));
+    public ResponseEntity getDocumentById(@ApiParam("Id of the document object being requested") @PathVariable UUID id,
+                                          @ApiIgnore WebRequest request) {
+        return conditional(request, documentService.fetchVersion(id), () -> documentService.fetchOne(id));
     }
 
     @ApiOperation(value = "Return metadata and content for a single document in the platform based on id",
             response = DocumentConsolidated.class,
             produces = MediaType.APPLICATION_JSON_VALUE)
     @GetMapping("/{id}/consolidated")
-    public ResponseEntity getDocumentConsolidatedById(@ApiParam("Id of the document object being requested") @PathVariable UUID id){
-        return ResponseEntity.ok(documentService.fetchOneConsolidated(id));
+    public ResponseEntity getDocumentConsolidatedById(@ApiParam("Id of the document object being requested") @PathVariable UUID id,
+                                                      @ApiIgnore WebRequest request) {
+        return conditional(request, documentService.fetchConsolidatedVersion(id), () -> {
+            if (consolidatedRenderMode == ConsolidatedRenderMode.STREAMING) {
+                return documentService.streamOneConsolidated(id);
+            }
+            return documentService.fetchOneConsolidated(id);
+        });
+    }
+
+    @ApiOperation(value = "Return the table of contents of a single document: the type, identifier and title of " +
+            "every unit, without their content",
+            response = DocumentOutline.class,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/{id}/outline")
+    public ResponseEntity getDocumentOutlineById(@ApiParam("Id of the document object being requested") @PathVariable UUID id) {
+        return ResponseEntity.ok(documentService.fetchOutline(id));
     }
 
     @ApiOperation(value = "Delete metadata and contents for a single document in the platform based on id")
@@ -83,6 +123,35 @@ public class DocumentController {
                 .body(consolidated.getId());
     }
 
+    @ApiOperation(value = "Queue a new document for asynchronous ingestion in the platform",
+            response = DocumentIngestionJobDto.class,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping("/async")
+    public ResponseEntity<DocumentIngestionJobDto> createDocumentAsync(
+            @ApiParam(value = "Title of the created document") @RequestParam("title") String documentTitle,
+            @ApiParam(value = "The document number of the created document") @RequestParam("number") BigInteger documentNumber,
+            @ApiParam(value = "The organization that initiated the document") @RequestParam("documentInitializer") String initiator,
+            @ApiParam(value = "Type of the document") @RequestParam("type") DocumentType type,
+            @ApiParam(value = "Date when the document was created") @DateTimeFormat(pattern = "dd/MM/yyyy") Date creationDate,
+            @ApiParam(value = "Date when the document was received") @DateTimeFormat(pattern = "dd/MM/yyyy") Date receiveDate,
+            @ApiParam(value = "The file containing the document content") @RequestParam("file") MultipartFile documentFile) {
+
+        DocumentViewDto documentViewDto = new DocumentViewDto(documentTitle, documentNumber, initiator, type, creationDate, receiveDate);
+        DocumentIngestionJobDto job = documentIngestionService.submit(documentViewDto, documentFile);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/document/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @ApiOperation(value = "Return the stage, progress and errors of an asynchronous document ingestion",
+            response = DocumentIngestionJobDto.class,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<DocumentIngestionJobDto> getIngestionJob(@ApiParam("Id of the ingestion job being requested") @PathVariable UUID id) {
+        return ResponseEntity.ok(documentIngestionService.getJob(id));
+    }
+
     @ApiOperation(value = "Modify a saved document in the platform",
             response = UUID.class,
             produces = MediaType.APPLICATION_JSON_VALUE)
@@ -101,4 +170,16 @@ public class DocumentController {
 
         return ResponseEntity.ok(consolidated.getId());
     }
+
+    // answered with 304 when the client already has this version, the body is only read otherwise. The version is
+    // read first, so a change in between costs the client one more download instead of keeping a stale copy.
+    // Clients may keep the response but have to check it is still current before using it.
+    private static <T> ResponseEntity<T> conditional(final WebRequest request,
+                                                     final ResourceVersion version,
+                                                     final Supplier<T> body) {
+        if (request.checkNotModified(version.getETag(), version.getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(body.get());
+    }
 }
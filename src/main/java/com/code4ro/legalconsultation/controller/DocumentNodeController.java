@@ -0,0 +1,47 @@
+package com.code4ro.legalconsultation.controller;
+
+import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
+import com.code4ro.legalconsultation.model.dto.DocumentNodeDto;
+import com.code4ro.legalconsultation.service.api.DocumentNodeService;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping(value = "/api/documentnodes")
+public class DocumentNodeController {
+
+    private final DocumentNodeService documentNodeService;
+    private final int maxSubtreeDepth;
+
+    @Autowired
+    public DocumentNodeController(DocumentNodeService documentNodeService,
+                                  @Value("${app.document.maxSubtreeDepth}") int maxSubtreeDepth) {
+        this.documentNodeService = documentNodeService;
+        this.maxSubtreeDepth = maxSubtreeDepth;
+    }
+
+    @ApiOperation(value = "Return a document node and its descendants down to the given depth; the deepest nodes " +
+            "say whether they have children of their own",
+            response = DocumentNodeDto.class,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping("/{id}/children")
+    public ResponseEntity<DocumentNodeDto> getChildren(@ApiParam("Id of the document node being requested") @PathVariable UUID id,
+                                                       @ApiParam("Levels of descendants, 1 for the direct children") @RequestParam(defaultValue = "1") int depth) {
+        if (depth < 0 || depth > maxSubtreeDepth) {
+            throw new LegalValidationException("document.node.depth.invalid", HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(documentNodeService.getSubtree(id, depth));
+    }
+}
@@ -1,5 +1,6 @@
 package com.code4ro.legalconsultation.controller;
 
+import com.code4ro.legalconsultation.model.dto.CursorPage;
 import com.code4ro.legalconsultation.model.dto.UserDto;
 import com.code4ro.legalconsultation.service.impl.UserService;
 import io.swagger.annotations.ApiOperation;
@@ -63,6 +64,20 @@ public class UserController {
         return userService.findAll(pageable);
     }
 
+    @ApiOperation(value = "Return the users after a cursor, ordered by email",
+            response = CursorPage.class,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/cursor")
+    public CursorPage<UserDto> findAllByCursor(
+            @ApiParam("Continuation token returned with the previous page, absent for the first one")
+            @RequestParam(required = false) final String cursor,
+            @ApiParam("Number of users in the page")
+            @RequestParam(defaultValue = "${spring.data.web.pageable.default-page-size}") final int size,
+            @ApiParam("Whether to count all the users")
+            @RequestParam(defaultValue = "false") final boolean count) {
+        return userService.findAll(cursor, size, count);
+    }
+
     @ApiOperation(value = "Delete a user from the platform based on id",
             produces = MediaType.APPLICATION_JSON_VALUE)
     @DeleteMapping(value = "/{id}")
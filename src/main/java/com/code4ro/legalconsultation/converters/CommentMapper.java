@@ -0,0 +1,27 @@
+package com.code4ro.legalconsultation.converters;
+
+import com.code4ro.legalconsultation.model.dto.CommentDto;
+import com.code4ro.legalconsultation.model.persistence.Comment;
+
+// the node and the owner of a comment are set by the service, they are not part of the dto
+public final class CommentMapper {
+
+    private CommentMapper() {
+    }
+
+    public static CommentDto toDto(final Comment comment) {
+        final CommentDto dto = new CommentDto();
+        dto.setId(comment.getId());
+        dto.setText(comment.getText());
+        dto.setLastEditDateTime(comment.getLastEditDateTime());
+        return dto;
+    }
+
+    public static Comment toEntity(final CommentDto dto) {
+        final Comment comment = new Comment();
+        comment.setId(dto.getId());
+        comment.setText(dto.getText());
+        comment.setLastEditDateTime(dto.getLastEditDateTime());
+        return comment;
+    }
+}
@@ -0,0 +1,31 @@
+package com.code4ro.legalconsultation.converters;
+
+import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+
+// the file path and the content hash are set when the file is stored, the id by the caller
+public final class DocumentMetadataMapper {
+
+    private DocumentMetadataMapper() {
+    }
+
+    public static DocumentViewDto toDto(final DocumentMetadata metadata) {
+        return new DocumentViewDto(metadata.getDocumentTitle(),
+                metadata.getDocumentNumber(),
+                metadata.getDocumentInitializer(),
+                metadata.getDocumentType(),
+                metadata.getDateOfDevelopment(),
+                metadata.getDateOfReceipt());
+    }
+
+    public static DocumentMetadata toEntity(final DocumentViewDto dto) {
+        final DocumentMetadata metadata = new DocumentMetadata();
+        metadata.setDocumentTitle(dto.getTitle());
+        metadata.setDocumentNumber(dto.getDocumentNumber());
+        metadata.setDocumentInitializer(dto.getDocumentInitializer());
+        metadata.setDocumentType(dto.getDocumentType());
+        metadata.setDateOfDevelopment(dto.getDateOfDevelopment());
+        metadata.setDateOfReceipt(dto.getDateOfReceipt());
+        return metadata;
+    }
+}
@@ -0,0 +1,44 @@
+package com.code4ro.legalconsultation.converters;
+
+import com.code4ro.legalconsultation.model.dto.DocumentNodeDto;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class DocumentNodeMapper {
+
+    private DocumentNodeMapper() {
+    }
+
+    // maps the whole subtree
+    public static DocumentNodeDto toDto(final DocumentNode documentNode) {
+        return toDto(documentNode, toDtos(documentNode.getChildren()));
+    }
+
+    // maps the node alone, with the given children
+    public static DocumentNodeDto toDto(final DocumentNode documentNode, final List<DocumentNodeDto> children) {
+        final DocumentNodeDto dto = new DocumentNodeDto();
+        dto.setId(documentNode.getId());
+        dto.setChildren(children);
+        dto.setDocumentNodeType(documentNode.getDocumentNodeType());
+        dto.setTitle(documentNode.getTitle());
+        dto.setContent(documentNode.getContent());
+        dto.setNumberOfComments(BigInteger.valueOf(documentNode.getCommentCount()));
+        return dto;
+    }
+
+    private static List<DocumentNodeDto> toDtos(final List<DocumentNode> documentNodes) {
+        if (documentNodes == null) {
+            return Collections.emptyList();
+        }
+
+        final List<DocumentNodeDto> dtos = new ArrayList<>(documentNodes.size());
+        for (final DocumentNode documentNode : documentNodes) {
+            dtos.add(toDto(documentNode));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,34 @@
+package com.code4ro.legalconsultation.converters;
+
+import com.code4ro.legalconsultation.model.dto.UserDto;
+import com.code4ro.legalconsultation.model.persistence.User;
+
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    public static UserDto toDto(final User user) {
+        final UserDto dto = new UserDto();
+        dto.setId(user.getId());
+        dto.setFirstName(user.getFirstName());
+        dto.setLastName(user.getLastName());
+        dto.setEmail(user.getEmail());
+        dto.setPhoneNumber(user.getPhoneNumber());
+        dto.setDistrict(user.getDistrict());
+        dto.setOrganisation(user.getOrganisation());
+        dto.setRole(user.getRole());
+        return dto;
+    }
+
+    public static User toEntity(final UserDto dto) {
+        final User user = new User(dto.getEmail(), dto.getRole());
+        user.setId(dto.getId());
+        user.setFirstName(dto.getFirstName());
+        user.setLastName(dto.getLastName());
+        user.setPhoneNumber(dto.getPhoneNumber());
+        user.setDistrict(dto.getDistrict());
+        user.setOrganisation(dto.getOrganisation());
+        return user;
+    }
+}
@@ -0,0 +1,16 @@
+package com.code4ro.legalconsultation.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class CursorPage<T> {
+    private List<T> content;
+    // continuation token of the next page, null on the last one
+    private String next;
+    // only counted when it was asked for
+    private Long totalElements;
+}
@@ -0,0 +1,19 @@
+package com.code4ro.legalconsultation.model.dto;
+
+import com.code4ro.legalconsultation.common.exceptions.I18nError;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+import java.util.UUID;
+
+@Getter
+@Setter
+public class DocumentIngestionJobDto extends BaseEntityDto {
+    private DocumentIngestionStage stage;
+    private int progress;
+    private UUID documentId;
+    private I18nError error;
+    private Date submitDate;
+    private Date finishDate;
+}
@@ -0,0 +1,17 @@
+package com.code4ro.legalconsultation.model.dto;
+
+public enum DocumentIngestionStage {
+    QUEUED(0),
+    STORING(10),
+    EXTRACTING(30),
+    PARSING(60),
+    PERSISTING(80),
+    COMPLETED(100),
+    FAILED(100);
+
+    public final int progress;
+
+    DocumentIngestionStage(int progress) {
+        this.progress = progress;
+    }
+}
@@ -0,0 +1,39 @@
+package com.code4ro.legalconsultation.model.dto;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class DocumentMetadataDto extends BaseEntityDto {
+    private BigInteger documentNumber;
+    private String documentTitle;
+    private String documentInitializer;
+    private DocumentType documentType;
+    private Date dateOfDevelopment;
+    private Date dateOfReceipt;
+
+    // used by the listing query, so the rows are read straight into the dto
+    public DocumentMetadataDto(final UUID id,
+                               final BigInteger documentNumber,
+                               final String documentTitle,
+                               final String documentInitializer,
+                               final DocumentType documentType,
+                               final Date dateOfDevelopment,
+                               final Date dateOfReceipt) {
+        setId(id);
+        this.documentNumber = documentNumber;
+        this.documentTitle = documentTitle;
+        this.documentInitializer = documentInitializer;
+        this.documentType = documentType;
+        this.dateOfDevelopment = dateOfDevelopment;
+        this.dateOfReceipt = dateOfReceipt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.code4ro.legalconsultation.model.dto;
 
 import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -15,4 +16,7 @@ public class DocumentNodeDto extends BaseEntityDto {
     private String title;
     private String content;
     private BigInteger numberOfComments;
+    // only set on subtrees: whether the node has children that were left out
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasMoreChildren;
 }
@@ -0,0 +1,124 @@
+package com.code4ro.legalconsultation.model.dto;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The table of contents of a document: the type, identifier and title of every node, without any content.
+ * Nodes are kept breadth first in flat arrays, so the children of a node are next to each other and only the
+ * offset of the first one is stored. Written as nested nodes, each with its children.
+ */
+public final class DocumentOutline extends JsonSerializable.Base {
+    private static final byte NO_TYPE = -1;
+    // array headers and string objects, as laid out by a 64-bit JVM with compressed references
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int STRING_BYTES = 24;
+
+    private final byte[] types;
+    private final String[] identifiers;
+    private final String[] titles;
+    // the children of node i are the nodes from firstChild[i] up to firstChild[i + 1]
+    private final int[] firstChild;
+    private final long sizeInBytes;
+
+    private DocumentOutline(final byte[] types,
+                            final String[] identifiers,
+                            final String[] titles,
+                            final int[] firstChild) {
+        this.types = types;
+        this.identifiers = identifiers;
+        this.titles = titles;
+        this.firstChild = firstChild;
+        this.sizeInBytes = estimateSize();
+    }
+
+    public static DocumentOutline of(final DocumentNode root) {
+        final List<DocumentNode> nodes = new ArrayList<>();
+        nodes.add(root);
+        for (int i = 0; i < nodes.size(); i++) {
+            final List<DocumentNode> children = nodes.get(i).getChildren();
+            if (children != null) {
+                nodes.addAll(children);
+            }
+        }
+
+        final byte[] types = new byte[nodes.size()];
+        final String[] identifiers = new String[nodes.size()];
+        final String[] titles = new String[nodes.size()];
+        final int[] firstChild = new int[nodes.size() + 1];
+        int next = 1;
+        for (int i = 0; i < nodes.size(); i++) {
+            final DocumentNode node = nodes.get(i);
+            final DocumentNodeType type = node.getDocumentNodeType();
+            types[i] = type == null ? NO_TYPE : (byte) type.ordinal();
+            identifiers[i] = node.getIdentifier();
+            titles[i] = node.getTitle();
+            firstChild[i] = next;
+            next += node.getChildren() == null ? 0 : node.getChildren().size();
+        }
+        firstChild[nodes.size()] = next;
+
+        return new DocumentOutline(types, identifiers, titles, firstChild);
+    }
+
+    public int size() {
+        return types.length;
+    }
+
+    // estimated heap taken by the outline; an upper bound, as latin-1 strings take one byte per char
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    @Override
+    public void serialize(final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+        writeNode(generator, 0);
+    }
+
+    @Override
+    public void serializeWithType(final JsonGenerator generator,
+                                  final SerializerProvider provider,
+                                  final TypeSerializer typeSerializer) throws IOException {
+        writeNode(generator, 0);
+    }
+
+    private void writeNode(final JsonGenerator generator, final int node) throws IOException {
+        generator.writeStartObject();
+        if (types[node] != NO_TYPE) {
+            generator.writeStringField("documentNodeType", DocumentNodeType.values()[types[node]].name());
+        } else {
+            generator.writeNullField("documentNodeType");
+        }
+        generator.writeStringField("identifier", identifiers[node]);
+        generator.writeStringField("title", titles[node]);
+        generator.writeArrayFieldStart("children");
+        for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+            writeNode(generator, child);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private long estimateSize() {
+        long size = ARRAY_HEADER_BYTES + types.length
+                + 2 * (ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * types.length)
+                + ARRAY_HEADER_BYTES + (long) Integer.BYTES * firstChild.length;
+        for (int i = 0; i < types.length; i++) {
+            size += estimateSize(identifiers[i]) + estimateSize(titles[i]);
+        }
+        return size;
+    }
+
+    private static long estimateSize(final String value) {
+        return value == null ? 0 : STRING_BYTES + ARRAY_HEADER_BYTES + 2L * value.length();
+    }
+}
@@ -0,0 +1,27 @@
+package com.code4ro.legalconsultation.model.dto;
+
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * What a conditional GET is checked against: a strong ETag and, when known, the time of the last change.
+ */
+@Getter
+public class ResourceVersion {
+    private final String eTag;
+    // epoch millis, -1 for documents saved before the versions were kept
+    private final long lastModified;
+
+    public ResourceVersion(final String eTag, final Date lastModified) {
+        this.eTag = eTag;
+        this.lastModified = lastModified == null ? -1 : lastModified.getTime();
+    }
+
+    // used by the listing query: adding a document changes the newest id, removing one the count and
+    // uploading one again the sum of the versions
+    public ResourceVersion(final Long count, final Long versionSum, final UUID newestId, final Date lastModified) {
+        this(count + "-" + (versionSum == null ? 0 : versionSum) + "-" + newestId, lastModified);
+    }
+}
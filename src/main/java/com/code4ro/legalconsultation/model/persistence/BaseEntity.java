@@ -2,10 +2,11 @@ package com.code4ro.legalconsultation.model.persistence;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
 
+import javax.persistence.Column;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 import java.util.Objects;
@@ -16,9 +17,13 @@ import java.util.UUID;
 @Setter
 public abstract class BaseEntity {
 
+    // stored as BINARY(16), the foreign keys referencing it take the same type
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    @Type(type = "uuid-char")
+    @GeneratedValue(generator = "time-ordered-uuid")
+    @GenericGenerator(name = "time-ordered-uuid",
+            strategy = "com.code4ro.legalconsultation.model.persistence.TimeOrderedUuidGenerator")
+    @Type(type = "uuid-binary")
+    @Column(name = "id", length = 16)
     private UUID id;
 
     public boolean isNew() {
@@ -8,7 +8,8 @@ import javax.persistence.*;
 import java.util.Date;
 
 @Entity
-@Table(name="comments")
+@Table(name="comments", indexes = @Index(name = "idx_comments_document_node_id_last_edit_date",
+        columnList = "document_node_id, last_edit_date, id"))
 @Getter
 @Setter
 public class Comment extends BaseEntity {
@@ -3,12 +3,16 @@ package com.code4ro.legalconsultation.model.persistence;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
 import javax.persistence.CascadeType;
 import javax.persistence.JoinColumn;
+import java.util.Date;
 
 @Entity
 @Table(name = "consolidated_document")
@@ -24,6 +28,14 @@ public class DocumentConsolidated extends BaseEntity {
     @JoinColumn(name = "document_node_id")
     private DocumentNode documentNode;
 
+    // bumped when a comment is added or removed, which only changes the consolidated document
+    @Column(name = "comment_version", nullable = false)
+    private long commentVersion;
+
+    @Column(name = "comments_last_modified")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date commentsLastModified;
+
     public DocumentConsolidated(DocumentMetadata documentMetadata, DocumentNode documentNode) {
         this.documentMetadata = documentMetadata;
         this.documentNode = documentNode;
@@ -2,16 +2,26 @@ package com.code4ro.legalconsultation.model.persistence;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.math.BigInteger;
 import java.util.Date;
 
 @Entity
-@Table(name = "document_description")
+@Table(name = "document_description", indexes = {
+        @Index(name = "idx_document_description_date_of_receipt", columnList = "date_of_receipt"),
+        @Index(name = "idx_document_description_type_date_of_receipt", columnList = "document_type, date_of_receipt"),
+        @Index(name = "idx_document_description_initializer_date_of_receipt",
+                columnList = "document_initializer, date_of_receipt"),
+        @Index(name = "idx_document_description_content_hash", columnList = "content_hash"),
+        @Index(name = "idx_document_description_file_path", columnList = "file_path")})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DocumentMetadata.CACHE_REGION)
 @Getter
 @Setter
 public class DocumentMetadata extends BaseEntity {
+    public static final String CACHE_REGION = "documentMetadata";
 
     @Column(name = "document_number", unique=true, nullable=false)
     private BigInteger documentNumber;
@@ -34,6 +44,19 @@ public class DocumentMetadata extends BaseEntity {
     @Temporal(TemporalType.DATE)
     private Date dateOfReceipt;
 
-    @Column(name = "file_path", unique = true, nullable = false)
+    // shared by the documents uploaded with the same content
+    @Column(name = "file_path", nullable = false)
     private String filePath;
+
+    // SHA-256 of the stored file, hex encoded
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // bumped whenever the document is uploaded again, it is part of the ETag of the document
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "last_modified")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModified;
 }
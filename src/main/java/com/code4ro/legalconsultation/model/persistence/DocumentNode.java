@@ -2,23 +2,43 @@ package com.code4ro.legalconsultation.model.persistence;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
-@Table(name = "document_nodes")
+@Table(name = "document_nodes", indexes = {
+        @Index(name = "idx_document_nodes_document_id", columnList = "document_id"),
+        @Index(name = "idx_document_nodes_parent_position", columnList = "parent, document_position")})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DocumentNode.CACHE_REGION)
 @Getter
 @Setter
 public class DocumentNode extends BaseEntity {
+    public static final String CACHE_REGION = "documentNodes";
+    public static final String CHILDREN_CACHE_REGION = "documentNodeChildren";
 
     @ManyToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "parent")
     private DocumentNode parent;
 
     @OneToMany(mappedBy = "parent", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @OrderBy("documentPosition")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DocumentNode.CHILDREN_CACHE_REGION)
     private List<DocumentNode> children;
 
+    // id of the root node of the document, so a whole document can be read with one query
+    @Type(type = "uuid-binary")
+    @Column(name = "document_id", length = 16)
+    private UUID documentId;
+
+    // index of the node in the document, in reading order
+    @Column(name = "document_position")
+    private Integer documentPosition;
+
     @Column(name = "document_node_type")
     private DocumentNodeType documentNodeType;
 
@@ -30,4 +50,8 @@ public class DocumentNode extends BaseEntity {
 
     @Column(name = "identifier")
     private String identifier;
+
+    // kept up to date by the comment service, so reading a document needs no comment queries
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
 }
@@ -4,9 +4,13 @@ import com.code4ro.legalconsultation.model.persistence.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigInteger;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
@@ -14,4 +18,15 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     Page<Comment> findByDocumentNodeId(final UUID nodeId,
                                        final Pageable pageable);
     BigInteger countByDocumentNodeId(final UUID nodeId);
+
+    @Query("select c from Comment c where c.documentNode.id = :nodeId order by c.lastEditDateTime, c.id")
+    List<Comment> findFirstKeysetPage(@Param("nodeId") final UUID nodeId,
+                                      final Pageable pageable);
+
+    @Query("select c from Comment c where c.documentNode.id = :nodeId and (c.lastEditDateTime > :lastEditDate " +
+            "or (c.lastEditDateTime = :lastEditDate and c.id > :id)) order by c.lastEditDateTime, c.id")
+    List<Comment> findKeysetPageAfter(@Param("nodeId") final UUID nodeId,
+                                      @Param("lastEditDate") final Date lastEditDate,
+                                      @Param("id") final UUID id,
+                                      final Pageable pageable);
 }
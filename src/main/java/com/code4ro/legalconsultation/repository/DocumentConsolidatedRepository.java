@@ -2,10 +2,25 @@ package com.code4ro.legalconsultation.repository;
 
 import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.UUID;
 
 @Repository
 public interface DocumentConsolidatedRepository extends JpaRepository<DocumentConsolidated, UUID> {
+    // only the row, deleting the entity would cascade to the metadata and load the whole tree to delete it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from DocumentConsolidated c where c.id = :id")
+    int deleteRowById(@Param("id") UUID id);
+
+    // a single statement, so changing the comments never loads the documents
+    @Modifying
+    @Query("update DocumentConsolidated c set c.commentVersion = c.commentVersion + 1, c.commentsLastModified = :now " +
+            "where c.documentNode.id in :rootIds")
+    int incrementCommentVersions(@Param("rootIds") Collection<UUID> rootIds, @Param("now") Date now);
 }
@@ -1,11 +1,42 @@
 package com.code4ro.legalconsultation.repository;
 
+import com.code4ro.legalconsultation.model.dto.DocumentMetadataDto;
+import com.code4ro.legalconsultation.model.dto.ResourceVersion;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+import com.code4ro.legalconsultation.model.persistence.DocumentType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface DocumentMetadataRepository extends JpaRepository<DocumentMetadata, UUID> {
+    // a filter left null matches every document
+    @Query(value = "select new com.code4ro.legalconsultation.model.dto.DocumentMetadataDto(m.id, m.documentNumber, " +
+            "m.documentTitle, m.documentInitializer, m.documentType, m.dateOfDevelopment, m.dateOfReceipt) " +
+            "from DocumentMetadata m " +
+            "where (:type is null or m.documentType = :type) and (:initiator is null or m.documentInitializer = :initiator)",
+            countQuery = "select count(m) from DocumentMetadata m " +
+                    "where (:type is null or m.documentType = :type) and (:initiator is null or m.documentInitializer = :initiator)")
+    Page<DocumentMetadataDto> findAllDtos(@Param("type") final DocumentType type,
+                                          @Param("initiator") final String initiator,
+                                          final Pageable pageable);
+
+    // an aggregate over the rows the listing is filtered on, so it can be answered without reading the page
+    @Query("select new com.code4ro.legalconsultation.model.dto.ResourceVersion(count(m), sum(m.version), max(m.id), " +
+            "max(m.lastModified)) " +
+            "from DocumentMetadata m " +
+            "where (:type is null or m.documentType = :type) and (:initiator is null or m.documentInitializer = :initiator)")
+    ResourceVersion findListingVersion(@Param("type") final DocumentType type,
+                                       @Param("initiator") final String initiator);
+
+    // documents with the same content share one stored file
+    Optional<DocumentMetadata> findFirstByContentHash(final String contentHash);
+
+    boolean existsByFilePath(final String filePath);
 }
@@ -0,0 +1,265 @@
+package com.code4ro.legalconsultation.repository;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.model.persistence.TimeOrderedUuidGenerator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Writes whole parsed document trees with batched JDBC inserts, and deletes them with a few set-based
+ * statements. Cascading a tree through JPA costs one round trip per node, and a parsed regulation has
+ * thousands of them.
+ */
+@Repository
+public class DocumentNodeBatchRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(DocumentNodeBatchRepository.class);
+    private static final String INSERT_NODE = "INSERT INTO document_nodes " +
+            "(id, parent, document_id, document_position, document_node_type, title, content, identifier, comment_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String DELETE_COMMENTS = "DELETE FROM comments WHERE document_node_id IN " +
+            "(SELECT id FROM document_nodes WHERE document_id = ?)";
+    // InnoDB checks the parent reference row by row, so a single delete could remove a parent before its child
+    private static final String CLEAR_PARENTS = "UPDATE document_nodes SET parent = NULL WHERE document_id = ?";
+    private static final String DELETE_NODES = "DELETE FROM document_nodes WHERE document_id = ?";
+    private static final String SELECT_NODES = "SELECT id, parent, document_node_type, title, content, comment_count " +
+            "FROM document_nodes WHERE document_id = ? ORDER BY document_position";
+    private static final String SELECT_OUTLINE = "SELECT id, parent, document_node_type, identifier, title " +
+            "FROM document_nodes WHERE document_id = ? ORDER BY document_position";
+    private static final String SELECT_ROOTS_WITHOUT_DOCUMENT_ID =
+            "SELECT id FROM document_nodes WHERE parent IS NULL AND document_id IS NULL";
+    // siblings in id order, the order their lazy children collection was read in
+    private static final String SELECT_CHILDREN = "SELECT id, parent FROM document_nodes WHERE parent IN (%s) ORDER BY id";
+    private static final String SET_DOCUMENT_ID = "UPDATE document_nodes SET document_id = ?, document_position = ? WHERE id = ?";
+    // with useCursorFetch MySQL sends the rows in chunks of this size instead of the whole result at once
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final DistributionSummary insertTimeSummary;
+
+    @Autowired
+    public DocumentNodeBatchRepository(final JdbcTemplate jdbcTemplate,
+                                       @Value("${app.persistence.nodeBatchSize}") final int batchSize,
+                                       final MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.insertTimeSummary = DistributionSummary.builder("document.nodes.insert.per1k")
+                .description("Time spent inserting a thousand nodes of a parsed document")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Assigns ids and parents to a tree that was never saved and inserts all of its nodes.
+     * Has to run in the transaction that saves whatever references the root.
+     *
+     * @return the id of the root node
+     */
+    public UUID insertTree(final DocumentNode root) {
+        final List<DocumentNode> nodes = flatten(root);
+
+        final long start = System.nanoTime();
+        jdbcTemplate.batchUpdate(INSERT_NODE, nodes, batchSize, this::setValues);
+        final double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        insertTimeSummary.record(elapsedMillis * 1000 / nodes.size());
+        LOG.info("Inserted {} document nodes in {} ms", nodes.size(), Math.round(elapsedMillis));
+        return root.getId();
+    }
+
+    /**
+     * Deletes all the nodes of a document, and the comments on them, without reading them. Runs around
+     * hibernate, so the caller has to evict the nodes from the second-level cache.
+     *
+     * @return the number of deleted nodes
+     */
+    public int deleteTree(final UUID documentId) {
+        final byte[] id = TimeOrderedUuidGenerator.toBytes(documentId);
+
+        final long start = System.nanoTime();
+        final int comments = jdbcTemplate.update(DELETE_COMMENTS, statement -> statement.setBytes(1, id));
+        jdbcTemplate.update(CLEAR_PARENTS, statement -> statement.setBytes(1, id));
+        final int nodes = jdbcTemplate.update(DELETE_NODES, statement -> statement.setBytes(1, id));
+
+        LOG.info("Deleted {} document nodes and {} comments in {} ms",
+                nodes, comments, Math.round((System.nanoTime() - start) / 1_000_000.0));
+        return nodes;
+    }
+
+    /**
+     * Sets the document id and position of the nodes of the trees saved before the nodes kept them, reading
+     * each tree one level at a time. Runs around hibernate, so the caller has to evict the nodes from the
+     * second-level cache.
+     *
+     * @return the ids of the updated nodes
+     */
+    public List<UUID> fillDocumentIds() {
+        final List<UUID> filled = new ArrayList<>();
+        for (final byte[] root : jdbcTemplate.queryForList(SELECT_ROOTS_WITHOUT_DOCUMENT_ID, byte[].class)) {
+            final List<UUID> ids = findTreeIds(TimeOrderedUuidGenerator.fromBytes(root));
+            final List<Integer> positions = IntStream.range(0, ids.size()).boxed().collect(Collectors.toList());
+            jdbcTemplate.batchUpdate(SET_DOCUMENT_ID, positions, batchSize, (statement, position) -> {
+                statement.setBytes(1, root);
+                statement.setInt(2, position);
+                statement.setBytes(3, TimeOrderedUuidGenerator.toBytes(ids.get(position)));
+            });
+            filled.addAll(ids);
+        }
+        return filled;
+    }
+
+    /**
+     * Hands the nodes of a document to the consumer one row at a time, in document order, so every node comes
+     * after its parent and before its next sibling. Only the id of the parent is set, the children are not.
+     */
+    public void forEachNode(final UUID documentId, final Consumer<DocumentNode> consumer) {
+        query(SELECT_NODES, documentId, row -> {
+            final DocumentNode node = toNode(row);
+            node.setContent(row.getString("content"));
+            node.setCommentCount(row.getLong("comment_count"));
+            consumer.accept(node);
+        });
+    }
+
+    /**
+     * Same as {@link #forEachNode}, with the identifier of the nodes instead of their content.
+     */
+    public void forEachOutlineNode(final UUID documentId, final Consumer<DocumentNode> consumer) {
+        query(SELECT_OUTLINE, documentId, row -> {
+            final DocumentNode node = toNode(row);
+            node.setIdentifier(row.getString("identifier"));
+            consumer.accept(node);
+        });
+    }
+
+    private void query(final String sql, final UUID documentId, final RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setBytes(1, TimeOrderedUuidGenerator.toBytes(documentId));
+            return statement;
+        }, handler);
+    }
+
+    // the ids of a tree in document order, one query per level and per batch of parents
+    private List<UUID> findTreeIds(final UUID rootId) {
+        final Map<UUID, List<UUID>> children = new HashMap<>();
+        List<UUID> level = Collections.singletonList(rootId);
+        while (!level.isEmpty()) {
+            final List<UUID> nextLevel = new ArrayList<>();
+            for (int from = 0; from < level.size(); from += batchSize) {
+                final Object[] parents = level.subList(from, Math.min(from + batchSize, level.size())).stream()
+                        .map(TimeOrderedUuidGenerator::toBytes)
+                        .toArray();
+                final String sql = String.format(SELECT_CHILDREN, String.join(", ", Collections.nCopies(parents.length, "?")));
+                jdbcTemplate.query(sql, row -> {
+                    final UUID id = TimeOrderedUuidGenerator.fromBytes(row.getBytes("id"));
+                    final UUID parentId = TimeOrderedUuidGenerator.fromBytes(row.getBytes("parent"));
+                    children.computeIfAbsent(parentId, parent -> new ArrayList<>()).add(id);
+                    nextLevel.add(id);
+                }, parents);
+            }
+            level = nextLevel;
+        }
+
+        final List<UUID> ids = new ArrayList<>();
+        final Deque<UUID> pending = new ArrayDeque<>();
+        pending.push(rootId);
+        while (!pending.isEmpty()) {
+            final UUID id = pending.pop();
+            ids.add(id);
+            final List<UUID> nodeChildren = children.getOrDefault(id, Collections.emptyList());
+            for (int i = nodeChildren.size() - 1; i >= 0; i--) {
+                pending.push(nodeChildren.get(i));
+            }
+        }
+        return ids;
+    }
+
+    private DocumentNode toNode(final ResultSet row) throws SQLException {
+        final DocumentNode node = new DocumentNode();
+        node.setId(TimeOrderedUuidGenerator.fromBytes(row.getBytes("id")));
+        final byte[] parentId = row.getBytes("parent");
+        if (parentId != null) {
+            final DocumentNode parent = new DocumentNode();
+            parent.setId(TimeOrderedUuidGenerator.fromBytes(parentId));
+            node.setParent(parent);
+        }
+        final int type = row.getInt("document_node_type");
+        node.setDocumentNodeType(row.wasNull() ? null : DocumentNodeType.values()[type]);
+        node.setTitle(row.getString("title"));
+        return node;
+    }
+
+    // parent first, so the parent of every row is already inserted when the row is
+    private List<DocumentNode> flatten(final DocumentNode root) {
+        final List<DocumentNode> nodes = new ArrayList<>();
+        final Deque<DocumentNode> pending = new ArrayDeque<>();
+        final UUID documentId = TimeOrderedUuidGenerator.generate();
+        root.setId(documentId);
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final DocumentNode node = pending.pop();
+            node.setDocumentId(documentId);
+            node.setDocumentPosition(nodes.size());
+            nodes.add(node);
+
+            final List<DocumentNode> children = node.getChildren();
+            if (children == null) {
+                continue;
+            }
+            // pushed last to first, so the rows keep the document order
+            for (int i = children.size() - 1; i >= 0; i--) {
+                final DocumentNode child = children.get(i);
+                child.setId(TimeOrderedUuidGenerator.generate());
+                child.setParent(node);
+                pending.push(child);
+            }
+        }
+
+        return nodes;
+    }
+
+    private void setValues(final PreparedStatement statement, final DocumentNode node) throws SQLException {
+        statement.setBytes(1, TimeOrderedUuidGenerator.toBytes(node.getId()));
+        if (node.getParent() != null) {
+            statement.setBytes(2, TimeOrderedUuidGenerator.toBytes(node.getParent().getId()));
+        } else {
+            statement.setNull(2, Types.BINARY);
+        }
+        statement.setBytes(3, TimeOrderedUuidGenerator.toBytes(node.getDocumentId()));
+        statement.setInt(4, node.getDocumentPosition());
+        if (node.getDocumentNodeType() != null) {
+            statement.setInt(5, node.getDocumentNodeType().ordinal());
+        } else {
+            statement.setNull(5, Types.INTEGER);
+        }
+        statement.setString(6, node.getTitle());
+        statement.setString(7, node.getContent());
+        statement.setString(8, node.getIdentifier());
+    }
+}
@@ -2,10 +2,51 @@ package com.code4ro.legalconsultation.repository;
 
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface DocumentNodeRepository extends JpaRepository<DocumentNode, UUID> {
+    // fetches the children too, so every children collection is initialized, and cached, along with the nodes
+    @Query("select n from DocumentNode n left join fetch n.children where n.documentId = :documentId")
+    List<DocumentNode> findTreeByDocumentId(@Param("documentId") UUID documentId);
+
+    @Query("select n.id from DocumentNode n where n.documentId = :documentId")
+    List<UUID> findIdsByDocumentId(@Param("documentId") UUID documentId);
+
+    long countByDocumentId(UUID documentId);
+
+    // one level of a subtree, read through the index on the parent column
+    @Query("select n from DocumentNode n where n.parent.id in :parentIds order by n.documentPosition")
+    List<DocumentNode> findByParentIds(@Param("parentIds") Collection<UUID> parentIds);
+
+    @Query("select distinct n.parent.id from DocumentNode n where n.parent.id in :parentIds")
+    List<UUID> findParentIdsWithChildren(@Param("parentIds") Collection<UUID> parentIds);
+
+    // locks the row until the end of the transaction, the node must not have been read before it in the same one
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select n from DocumentNode n where n.id = :id")
+    Optional<DocumentNode> findForUpdateById(@Param("id") UUID id);
+
+    // the documents the reconciliation is about to repair, read before it as it does not say which nodes it changed
+    @Query("select distinct n.documentId from DocumentNode n where n.documentId is not null " +
+            "and n.commentCount <> (select count(c) from Comment c where c.documentNode = n)")
+    List<UUID> findDocumentIdsWithDriftedCommentCounts();
+
+    // a native statement empties the whole second-level cache, fine for a nightly job
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE document_nodes SET comment_count = " +
+            "(SELECT COUNT(*) FROM comments c WHERE c.document_node_id = document_nodes.id) " +
+            "WHERE comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.document_node_id = document_nodes.id)",
+            nativeQuery = true)
+    int reconcileCommentCounts();
 }
@@ -1,7 +1,10 @@
 package com.code4ro.legalconsultation.repository;
 
 import com.code4ro.legalconsultation.model.persistence.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
@@ -15,4 +18,12 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     List<User> findAllByEmailIn(Collection<String> emails);
 
     Optional<User> findByEmail(final String email);
+
+    @Query("select u from User u order by u.email, u.id")
+    List<User> findFirstKeysetPage(final Pageable pageable);
+
+    @Query("select u from User u where u.email > :email or (u.email = :email and u.id > :id) order by u.email, u.id")
+    List<User> findKeysetPageAfter(@Param("email") final String email,
+                                   @Param("id") final UUID id,
+                                   final Pageable pageable);
 }
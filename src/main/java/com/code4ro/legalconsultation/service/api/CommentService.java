@@ -1,6 +1,7 @@
 package com.code4ro.legalconsultation.service.api;
 
 import com.code4ro.legalconsultation.model.dto.CommentDto;
+import com.code4ro.legalconsultation.model.dto.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -12,5 +13,6 @@ public interface CommentService {
     CommentDto create(UUID nodeId, CommentDto commentDto);
     void delete(UUID id);
     Page<CommentDto> findAll(UUID nodeId, Pageable pageable);
+    CursorPage<CommentDto> findAll(UUID nodeId, String cursor, int size, boolean count);
     BigInteger count(UUID nodeId);
 }
@@ -0,0 +1,15 @@
+package com.code4ro.legalconsultation.service.api;
+
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionJobDto;
+import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.UUID;
+
+public interface DocumentIngestionService {
+    //queue a document for asynchronous storing, parsing and persisting
+    DocumentIngestionJobDto submit(DocumentViewDto document, MultipartFile file);
+
+    //return the current state of an ingestion job
+    DocumentIngestionJobDto getJob(UUID id);
+}
@@ -1,10 +1,22 @@
 package com.code4ro.legalconsultation.service.api;
 
+import com.code4ro.legalconsultation.model.dto.DocumentNodeDto;
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
 
 import java.util.UUID;
 
 public interface DocumentNodeService {
     DocumentNode getEntity(UUID id);
-    DocumentNode parse(String pdfContent);
+    DocumentNode getTree(UUID rootId);
+    DocumentNodeDto getSubtree(UUID id, int depth);
+    DocumentOutline getOutline(UUID rootId);
+    void addToCommentCount(UUID id, long delta);
+    void evictTree(UUID rootId);
+    long countTree(UUID rootId);
+    void deleteTree(UUID rootId);
+    int reconcileCommentCounts();
+    int fillDocumentIds();
+    DocumentNode parse(PDFContent pdfContent);
 }
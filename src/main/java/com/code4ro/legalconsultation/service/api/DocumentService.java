@@ -1,32 +1,62 @@
 package com.code4ro.legalconsultation.service.api;
 
 import com.code4ro.legalconsultation.model.dto.DocumentConsolidatedDto;
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionStage;
+import com.code4ro.legalconsultation.model.dto.DocumentMetadataDto;
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
 import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.dto.ResourceVersion;
 import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+import com.code4ro.legalconsultation.model.persistence.DocumentType;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.persistence.EntityNotFoundException;
-import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public interface DocumentService {
-    //return all metadata for documents
-    List<DocumentMetadata> fetchAll();
+    //return a page of document metadata, optionally of a single type or initiator
+    Page<DocumentMetadataDto> fetchAll(final DocumentType type,
+                                       final String initiator,
+                                       final Pageable pageable);
+
+    //return the version of a page of document metadata, the same for every page of a type and initiator
+    ResourceVersion fetchListingVersion(final DocumentType type, final String initiator);
 
     //return document metadata for a single document
     DocumentMetadata fetchOne(final UUID id);
 
+    //return the version of the metadata of a document, changed when the document is uploaded again
+    ResourceVersion fetchVersion(final UUID id);
+
+    //return the version of the consolidated document, also changed when its comments are
+    ResourceVersion fetchConsolidatedVersion(final UUID id);
+
     //return the entire consolidated form of the document,
     //that contains the metadata and the breakdown into units
     DocumentConsolidatedDto fetchOneConsolidated(final UUID id);
 
+    //the same consolidated form, written to the response as the nodes are read
+    JsonSerializable streamOneConsolidated(final UUID id);
+
+    //return the table of contents of a document, without the content of its units
+    DocumentOutline fetchOutline(final UUID id);
+
     //create a single document, including metadata and breakdown
     DocumentConsolidated create(final DocumentViewDto document,
                                 final MultipartFile file);
 
+    //create a single document, reporting each ingestion stage as it starts
+    DocumentConsolidated create(final DocumentViewDto document,
+                                final MultipartFile file,
+                                final Consumer<DocumentIngestionStage> stageListener);
+
     //update a single document
     DocumentConsolidated update(final UUID id,
                                 final DocumentViewDto document,
@@ -1,7 +1,8 @@
 package com.code4ro.legalconsultation.service.api;
 
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface PDFService {
-    String readAsString(MultipartFile file);
+    PDFContent read(MultipartFile file);
 }
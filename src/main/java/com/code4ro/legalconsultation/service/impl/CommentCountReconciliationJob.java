@@ -0,0 +1,44 @@
+package com.code4ro.legalconsultation.service.impl;
+
+import com.code4ro.legalconsultation.service.api.DocumentNodeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The comment counters of document nodes are only changed by the comment service; this repairs the ones
+ * that drifted anyway, e.g. after comments were removed directly in the database or nodes saved before
+ * the counter existed. The nodes saved before they kept their document id get it at startup, the comment
+ * versions of the documents depend on it.
+ */
+@Component
+public class CommentCountReconciliationJob {
+    private static final Logger LOG = LoggerFactory.getLogger(CommentCountReconciliationJob.class);
+
+    private final DocumentNodeService documentNodeService;
+
+    @Autowired
+    public CommentCountReconciliationJob(final DocumentNodeService documentNodeService) {
+        this.documentNodeService = documentNodeService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillDocumentIds() {
+        final int filled = documentNodeService.fillDocumentIds();
+        if (filled > 0) {
+            LOG.info("Filled in the document id of {} document nodes", filled);
+        }
+    }
+
+    @Scheduled(cron = "${app.persistence.commentCountReconciliationCron}")
+    public void reconcile() {
+        final int repaired = documentNodeService.reconcileCommentCounts();
+        if (repaired > 0) {
+            LOG.warn("Repaired the comment count of {} document nodes", repaired);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.code4ro.legalconsultation.service.impl;
 import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
 import com.code4ro.legalconsultation.config.security.CurrentUserService;
 import com.code4ro.legalconsultation.model.dto.CommentDto;
+import com.code4ro.legalconsultation.model.dto.CursorPage;
 import com.code4ro.legalconsultation.model.persistence.ApplicationUser;
 import com.code4ro.legalconsultation.model.persistence.Comment;
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
@@ -19,6 +20,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
 import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -27,15 +32,18 @@ public class CommentServiceImpl implements CommentService {
     private final CommentRepository commentRepository;
     private final CurrentUserService currentUserService;
     private final DocumentNodeService documentNodeService;
+    private final DocumentConsolidatedService documentConsolidatedService;
     private final MapperService mapperService;
 
     public CommentServiceImpl(CommentRepository commentRepository,
                               CurrentUserService currentUserService,
                               DocumentNodeService documentNodeService,
+                              DocumentConsolidatedService documentConsolidatedService,
                               MapperService mapperService) {
         this.commentRepository = commentRepository;
         this.currentUserService = currentUserService;
         this.documentNodeService = documentNodeService;
+        this.documentConsolidatedService = documentConsolidatedService;
         this.mapperService = mapperService;
     }
 
@@ -54,6 +62,8 @@ public class CommentServiceImpl implements CommentService {
     @Transactional
     @Override
     public CommentDto create(UUID nodeId, final CommentDto commentDto) {
+        // counted first, the node has to be locked before it is read
+        documentNodeService.addToCommentCount(nodeId, 1);
         final DocumentNode node = documentNodeService.getEntity(nodeId);
 
         final ApplicationUser currentUser = currentUserService.getCurrentUser();
@@ -62,6 +72,9 @@ public class CommentServiceImpl implements CommentService {
         comment.setDocumentNode(node);
         comment.setOwner(currentUser);
         comment = commentRepository.save(comment);
+        // the number of comments is part of the consolidated document, so its version changes with it. Last,
+        // the document row stays locked until the commit
+        documentConsolidatedService.incrementCommentVersion(node);
 
         return mapperService.map(comment, CommentDto.class);
     }
@@ -73,6 +86,8 @@ public class CommentServiceImpl implements CommentService {
         checkIfAuthorized(comment);
 
         commentRepository.delete(comment);
+        documentNodeService.addToCommentCount(comment.getDocumentNode().getId(), -1);
+        documentConsolidatedService.incrementCommentVersion(comment.getDocumentNode());
     }
 
     @Transactional(readOnly = true)
@@ -82,12 +97,50 @@ public class CommentServiceImpl implements CommentService {
         return mapperService.mapPage(userPage, CommentDto.class);
     }
 
+    /**
+     * Comments ordered by their last edit date and id, starting after the cursor. Unlike the offset pages,
+     * no page needs a count or skips over the comments before it.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<CommentDto> findAll(final UUID documentNodeId, final String cursor, final int size, final boolean count) {
+        final Pageable limit = PageCursor.limit(size);
+        final List<Comment> comments;
+        if (cursor == null) {
+            comments = commentRepository.findFirstKeysetPage(documentNodeId, limit);
+        } else {
+            final PageCursor after = PageCursor.decode(cursor);
+            comments = commentRepository.findKeysetPageAfter(documentNodeId, parseDate(after.getKey()), after.getId(), limit);
+        }
+
+        final CursorPage<CommentDto> page = PageCursor.page(comments, size,
+                comment -> PageCursor.encode(comment.getId(), formatDate(comment.getLastEditDateTime())),
+                content -> mapperService.mapList(content, CommentDto.class));
+        if (count) {
+            page.setTotalElements(documentNodeService.getEntity(documentNodeId).getCommentCount());
+        }
+        return page;
+    }
+
     @Transactional(readOnly = true)
     @Override
     public BigInteger count(UUID nodeId) {
         return commentRepository.countByDocumentNodeId(nodeId);
     }
 
+    // the column only keeps the day, the time of a comment saved in this session is dropped as well
+    private String formatDate(final Date date) {
+        return new java.sql.Date(date.getTime()).toLocalDate().toString();
+    }
+
+    private Date parseDate(final String date) {
+        try {
+            return java.sql.Date.valueOf(LocalDate.parse(date));
+        } catch (DateTimeParseException e) {
+            throw PageCursor.invalid();
+        }
+    }
+
     private void checkIfAuthorized(Comment comment) {
         final ApplicationUser owner = comment.getOwner();
         final ApplicationUser currentUser = currentUserService.getCurrentUser();
@@ -0,0 +1,126 @@
+package com.code4ro.legalconsultation.service.impl;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes a consolidated document in the shape of {@link com.code4ro.legalconsultation.model.dto.DocumentConsolidatedDto}
+ * while its nodes are read, in document order, so neither the entities nor the dtos of the whole tree are ever on
+ * the heap. Only the ids of the nodes between the root and the current one are kept, to know which objects to close.
+ */
+@Component
+public class ConsolidatedDocumentJsonWriter {
+    private final DocumentNodeBatchRepository documentNodeBatchRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public ConsolidatedDocumentJsonWriter(final DocumentNodeBatchRepository documentNodeBatchRepository,
+                                          final PlatformTransactionManager transactionManager) {
+        this.documentNodeBatchRepository = documentNodeBatchRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * The nodes are read when jackson serializes the returned value, straight into the response; the document
+     * must have been saved with a document id.
+     */
+    public JsonSerializable render(final UUID consolidatedId, final UUID rootId) {
+        return new JsonSerializable.Base() {
+            @Override
+            public void serialize(final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+                write(generator, consolidatedId, rootId);
+            }
+
+            @Override
+            public void serializeWithType(final JsonGenerator generator,
+                                          final SerializerProvider provider,
+                                          final TypeSerializer typeSerializer) throws IOException {
+                write(generator, consolidatedId, rootId);
+            }
+        };
+    }
+
+    public void write(final JsonGenerator generator, final UUID consolidatedId, final UUID rootId) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", consolidatedId.toString());
+        generator.writeFieldName("documentNode");
+        final boolean written;
+        try {
+            written = readOnlyTransaction.execute(status -> writeNodes(generator, rootId));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (!written) {
+            // deleted since its metadata was read, the field still needs a value for the json to stay valid
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+    }
+
+    // whether any node was found
+    private boolean writeNodes(final JsonGenerator generator, final UUID rootId) {
+        final Deque<UUID> path = new ArrayDeque<>();
+        final AtomicBoolean written = new AtomicBoolean();
+        documentNodeBatchRepository.forEachNode(rootId, node -> {
+            written.set(true);
+            final UUID parentId = node.getParent() != null ? node.getParent().getId() : null;
+            // every node still open below the parent has had all of its children written
+            while (!path.isEmpty() && !Objects.equals(path.peek(), parentId)) {
+                closeNode(generator);
+                path.pop();
+            }
+            openNode(generator, node);
+            path.push(node.getId());
+        });
+        while (!path.isEmpty()) {
+            closeNode(generator);
+            path.pop();
+        }
+        return written.get();
+    }
+
+    // the fields of the node first, its children are written as they are read
+    private void openNode(final JsonGenerator generator, final DocumentNode node) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("id", node.getId().toString());
+            if (node.getDocumentNodeType() != null) {
+                generator.writeStringField("documentNodeType", node.getDocumentNodeType().name());
+            } else {
+                generator.writeNullField("documentNodeType");
+            }
+            generator.writeStringField("title", node.getTitle());
+            generator.writeStringField("content", node.getContent());
+            generator.writeNumberField("numberOfComments", node.getCommentCount());
+            generator.writeArrayFieldStart("children");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeNode(final JsonGenerator generator) {
+        try {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.code4ro.legalconsultation.service.impl;
+
+public enum ConsolidatedRenderMode {
+    TREE,
+    STREAMING
+}
@@ -1,11 +1,17 @@
 package com.code4ro.legalconsultation.service.impl;
 
 import com.code4ro.legalconsultation.model.dto.DocumentConsolidatedDto;
+import com.code4ro.legalconsultation.model.dto.DocumentNodeDto;
 import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
 import com.code4ro.legalconsultation.repository.DocumentConsolidatedRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeRepository;
+import com.code4ro.legalconsultation.service.api.DocumentNodeService;
 import com.code4ro.legalconsultation.service.api.MapperService;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.node.POJONode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +19,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,13 +30,25 @@ public class DocumentConsolidatedService {
     private static final Logger logger = LoggerFactory.getLogger(DocumentConsolidatedService.class);
 
     private final DocumentConsolidatedRepository documentConsolidatedRepository;
+    private final DocumentNodeRepository documentNodeRepository;
+    private final DocumentNodeBatchRepository documentNodeBatchRepository;
+    private final DocumentNodeService documentNodeService;
     private final MapperService mapperService;
+    private final ConsolidatedDocumentJsonWriter consolidatedDocumentJsonWriter;
 
     @Autowired
     public DocumentConsolidatedService(final DocumentConsolidatedRepository repository,
-                                       final MapperService mapperService){
+                                       final DocumentNodeRepository documentNodeRepository,
+                                       final DocumentNodeBatchRepository documentNodeBatchRepository,
+                                       final DocumentNodeService documentNodeService,
+                                       final MapperService mapperService,
+                                       final ConsolidatedDocumentJsonWriter consolidatedDocumentJsonWriter){
         this.documentConsolidatedRepository = repository;
+        this.documentNodeRepository = documentNodeRepository;
+        this.documentNodeBatchRepository = documentNodeBatchRepository;
+        this.documentNodeService = documentNodeService;
         this.mapperService = mapperService;
+        this.consolidatedDocumentJsonWriter = consolidatedDocumentJsonWriter;
     }
 
     @Transactional(readOnly = true)
@@ -41,7 +61,27 @@ public class DocumentConsolidatedService {
         DocumentConsolidated documentConsolidated = documentConsolidatedRepository.
                 findById(id).orElseThrow(EntityNotFoundException::new);
 
-        return mapperService.map(documentConsolidated, DocumentConsolidatedDto.class);
+        final DocumentConsolidatedDto documentConsolidatedDto = new DocumentConsolidatedDto();
+        documentConsolidatedDto.setId(documentConsolidated.getId());
+        final DocumentNode documentNode = documentNodeService.getTree(documentConsolidated.getDocumentNode().getId());
+        documentConsolidatedDto.setDocumentNode(mapperService.map(documentNode, DocumentNodeDto.class));
+        return documentConsolidatedDto;
+    }
+
+    /**
+     * Same json as {@link #getOne(UUID)}, written while the nodes are read instead of built up front.
+     */
+    @Transactional(readOnly = true)
+    public JsonSerializable getOneStreamed(final UUID id) {
+        DocumentConsolidated documentConsolidated = documentConsolidatedRepository.
+                findById(id).orElseThrow(EntityNotFoundException::new);
+
+        final DocumentNode root = documentConsolidated.getDocumentNode();
+        if (root.getDocumentId() == null) {
+            // saved without a document id, its nodes can only be reached through the children
+            return new POJONode(getOne(id));
+        }
+        return consolidatedDocumentJsonWriter.render(id, root.getId());
     }
 
     @Transactional(readOnly = true)
@@ -51,7 +91,14 @@ public class DocumentConsolidatedService {
 
     @Transactional
     public DocumentConsolidated saveOne(final DocumentConsolidated documentConsolidated){
-        return documentConsolidatedRepository.save(documentConsolidated);
+        final DocumentNode documentNode = documentConsolidated.getDocumentNode();
+        if (documentNode != null && documentNode.isNew()) {
+            // a freshly parsed tree is inserted in batches instead of being cascaded node by node
+            final UUID rootId = documentNodeBatchRepository.insertTree(documentNode);
+            documentConsolidated.setDocumentNode(documentNodeRepository.getOne(rootId));
+        }
+        // flushed, so the nodes the document referenced before can be deleted in the same transaction
+        return documentConsolidatedRepository.saveAndFlush(documentConsolidated);
     }
 
     @Transactional
@@ -59,9 +106,21 @@ public class DocumentConsolidatedService {
         return documentConsolidatedRepository.saveAll(documentConsolidatedList);
     }
 
+    // removes the row only, the metadata and the nodes are left to the caller
     @Transactional
     public void deleteById(final UUID uuid){
-        documentConsolidatedRepository.deleteById(uuid);
+        documentConsolidatedRepository.deleteRowById(uuid);
+    }
+
+    // locks the row of the document until the end of the transaction, so the comments written on the same
+    // document at the same time wait for each other there. Nodes without a document id are only left between
+    // an upgrade and the start of the application, which fills them in.
+    @Transactional
+    public void incrementCommentVersion(final DocumentNode commentedNode) {
+        if (commentedNode.getDocumentId() != null) {
+            documentConsolidatedRepository.incrementCommentVersions(
+                    Collections.singleton(commentedNode.getDocumentId()), new Date());
+        }
     }
 
     @Transactional
@@ -0,0 +1,155 @@
+package com.code4ro.legalconsultation.service.impl;
+
+import com.code4ro.legalconsultation.common.exceptions.I18nError;
+import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionJobDto;
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionStage;
+import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
+import com.code4ro.legalconsultation.service.api.DocumentIngestionService;
+import com.code4ro.legalconsultation.service.api.DocumentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class DocumentIngestionServiceImpl implements DocumentIngestionService {
+    private static final Logger LOG = LoggerFactory.getLogger(DocumentIngestionServiceImpl.class);
+
+    private final DocumentService documentService;
+    private final TaskExecutor documentIngestionExecutor;
+    private final long jobRetentionMillis;
+    private final Map<UUID, DocumentIngestionJobDto> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DocumentIngestionServiceImpl(final DocumentService documentService,
+                                        @Qualifier("documentIngestionExecutor") final TaskExecutor documentIngestionExecutor,
+                                        @Value("${app.ingestion.jobRetentionMinutes}") final long jobRetentionMinutes) {
+        this.documentService = documentService;
+        this.documentIngestionExecutor = documentIngestionExecutor;
+        this.jobRetentionMillis = TimeUnit.MINUTES.toMillis(jobRetentionMinutes);
+    }
+
+    @Override
+    public DocumentIngestionJobDto submit(final DocumentViewDto document, final MultipartFile file) {
+        evictFinishedJobs();
+
+        // the uploaded file is removed once the request completes, so the worker gets its own copy
+        final TemporaryMultipartFile upload = copyUpload(file);
+        final DocumentIngestionJobDto job = newJob();
+        jobs.put(job.getId(), job);
+        try {
+            documentIngestionExecutor.execute(() -> ingest(job.getId(), document, upload));
+        } catch (TaskRejectedException e) {
+            LOG.warn("Document ingestion queue is full, rejecting upload.", e);
+            jobs.remove(job.getId());
+            upload.delete();
+            throw new LegalValidationException("document.ingestion.queue.full", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        return job;
+    }
+
+    @Override
+    public DocumentIngestionJobDto getJob(final UUID id) {
+        final DocumentIngestionJobDto job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException();
+        }
+
+        return job;
+    }
+
+    private void ingest(final UUID jobId, final DocumentViewDto document, final TemporaryMultipartFile upload) {
+        try {
+            final DocumentConsolidated consolidated =
+                    documentService.create(document, upload, stage -> advance(jobId, stage));
+            finish(jobId, DocumentIngestionStage.COMPLETED, consolidated.getId(), null);
+        } catch (LegalValidationException e) {
+            LOG.warn("Document ingestion job {} failed.", jobId, e);
+            finish(jobId, DocumentIngestionStage.FAILED, null, new I18nError(e.getI18nKey(), e.getI8nArguments()));
+        } catch (Exception e) {
+            LOG.error("Document ingestion job {} failed.", jobId, e);
+            finish(jobId, DocumentIngestionStage.FAILED, null, new I18nError("document.ingestion.failed", null));
+        } finally {
+            upload.delete();
+        }
+    }
+
+    private DocumentIngestionJobDto newJob() {
+        final DocumentIngestionJobDto job = new DocumentIngestionJobDto();
+        job.setId(UUID.randomUUID());
+        job.setStage(DocumentIngestionStage.QUEUED);
+        job.setProgress(DocumentIngestionStage.QUEUED.progress);
+        job.setSubmitDate(new Date());
+        return job;
+    }
+
+    // jobs are replaced rather than mutated so readers never observe a half updated state
+    private void advance(final UUID jobId, final DocumentIngestionStage stage) {
+        jobs.computeIfPresent(jobId, (id, job) -> {
+            final DocumentIngestionJobDto next = copy(job);
+            next.setStage(stage);
+            next.setProgress(stage.progress);
+            return next;
+        });
+    }
+
+    private void finish(final UUID jobId,
+                        final DocumentIngestionStage stage,
+                        final UUID documentId,
+                        final I18nError error) {
+        jobs.computeIfPresent(jobId, (id, job) -> {
+            final DocumentIngestionJobDto next = copy(job);
+            next.setStage(stage);
+            if (stage == DocumentIngestionStage.COMPLETED) {
+                next.setProgress(stage.progress);
+            }
+            next.setDocumentId(documentId);
+            next.setError(error);
+            next.setFinishDate(new Date());
+            return next;
+        });
+    }
+
+    private DocumentIngestionJobDto copy(final DocumentIngestionJobDto job) {
+        final DocumentIngestionJobDto copy = new DocumentIngestionJobDto();
+        copy.setId(job.getId());
+        copy.setStage(job.getStage());
+        copy.setProgress(job.getProgress());
+        copy.setDocumentId(job.getDocumentId());
+        copy.setError(job.getError());
+        copy.setSubmitDate(job.getSubmitDate());
+        copy.setFinishDate(job.getFinishDate());
+        return copy;
+    }
+
+    private void evictFinishedJobs() {
+        final long oldestKept = System.currentTimeMillis() - jobRetentionMillis;
+        jobs.values().removeIf(job -> job.getFinishDate() != null && job.getFinishDate().getTime() < oldestKept);
+    }
+
+    private TemporaryMultipartFile copyUpload(final MultipartFile file) {
+        try {
+            return TemporaryMultipartFile.copyOf(file);
+        } catch (IOException e) {
+            LOG.warn("Could not buffer uploaded document.", e);
+            throw new LegalValidationException("document.upload.failed", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.code4ro.legalconsultation.service.impl;
 
+import com.code4ro.legalconsultation.model.dto.DocumentMetadataDto;
 import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.dto.ResourceVersion;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+import com.code4ro.legalconsultation.model.persistence.DocumentType;
 import com.code4ro.legalconsultation.repository.DocumentMetadataRepository;
 import com.code4ro.legalconsultation.service.api.MapperService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -32,10 +37,28 @@ public class DocumentMetadataService {
         return documentMetadataRepository.findAll();
     }
 
+    public Page<DocumentMetadataDto> fetchAll(final DocumentType type,
+                                              final String initiator,
+                                              final Pageable pageable) {
+        return documentMetadataRepository.findAllDtos(type, initiator, pageable);
+    }
+
+    public ResourceVersion fetchListingVersion(final DocumentType type, final String initiator) {
+        return documentMetadataRepository.findListingVersion(type, initiator);
+    }
+
     public Optional<DocumentMetadata> fetchOne(final String id) {
         return documentMetadataRepository.findById(UUID.fromString(id));
     }
 
+    public Optional<String> findFilePath(final String contentHash) {
+        return documentMetadataRepository.findFirstByContentHash(contentHash).map(DocumentMetadata::getFilePath);
+    }
+
+    public boolean isFileReferenced(final String filePath) {
+        return documentMetadataRepository.existsByFilePath(filePath);
+    }
+
     public DocumentMetadata build(final DocumentViewDto document){
         return mapperService.map(document, DocumentMetadata.class);
     }
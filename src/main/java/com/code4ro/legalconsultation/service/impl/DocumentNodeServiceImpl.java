@@ -1,28 +1,54 @@
 package com.code4ro.legalconsultation.service.impl;
 
+import com.code4ro.legalconsultation.converters.DocumentNodeMapper;
+import com.code4ro.legalconsultation.model.dto.DocumentNodeDto;
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.repository.DocumentConsolidatedRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
 import com.code4ro.legalconsultation.repository.DocumentNodeRepository;
 import com.code4ro.legalconsultation.service.api.DocumentNodeService;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
 import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParser;
-import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParsingMetadata;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParsingContext;
+import org.hibernate.Cache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class DocumentNodeServiceImpl implements DocumentNodeService {
+    private static final String CHILDREN_ROLE = DocumentNode.class.getName() + ".children";
 
     private final DocumentNodeRepository documentNodeRepository;
+    private final DocumentNodeBatchRepository documentNodeBatchRepository;
+    private final DocumentConsolidatedRepository documentConsolidatedRepository;
     private final DocumentParser documentParser;
+    private final Cache secondLevelCache;
 
     @Autowired
     public DocumentNodeServiceImpl(final DocumentNodeRepository documentNodeRepository,
-                                   final DocumentParser documentParser) {
+                                   final DocumentNodeBatchRepository documentNodeBatchRepository,
+                                   final DocumentConsolidatedRepository documentConsolidatedRepository,
+                                   final DocumentParser documentParser,
+                                   final Cache secondLevelCache) {
         this.documentNodeRepository = documentNodeRepository;
+        this.documentNodeBatchRepository = documentNodeBatchRepository;
+        this.documentConsolidatedRepository = documentConsolidatedRepository;
         this.documentParser = documentParser;
+        this.secondLevelCache = secondLevelCache;
     }
 
     @Transactional(readOnly = true)
@@ -32,12 +58,156 @@ public class DocumentNodeServiceImpl implements DocumentNodeService {
                 .orElseThrow(EntityNotFoundException::new);
     }
 
+    /**
+     * Reads all the nodes of a document with a single query, instead of loading the children of every node
+     * separately. Documents already in the second-level cache are walked through it, without any query.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public DocumentNode getTree(final UUID rootId) {
+        if (!isTreeCached(rootId)) {
+            // finds nothing for documents saved without a document id, those are walked through the lazy children
+            documentNodeRepository.findTreeByDocumentId(rootId);
+        }
+
+        return getEntity(rootId);
+    }
+
+    /**
+     * Reads a node and its descendants down to the given depth, one query per level plus one to find which of
+     * the deepest nodes have children of their own, so the client can ask for them later.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public DocumentNodeDto getSubtree(final UUID id, final int depth) {
+        final DocumentNodeDto root = DocumentNodeMapper.toDto(getEntity(id), new ArrayList<>());
+        Map<UUID, DocumentNodeDto> level = Collections.singletonMap(id, root);
+        for (int i = 0; i < depth && !level.isEmpty(); i++) {
+            final Map<UUID, DocumentNodeDto> nextLevel = new LinkedHashMap<>();
+            for (final DocumentNode child : documentNodeRepository.findByParentIds(level.keySet())) {
+                final DocumentNodeDto dto = DocumentNodeMapper.toDto(child, new ArrayList<>());
+                level.get(child.getParent().getId()).getChildren().add(dto);
+                nextLevel.put(child.getId(), dto);
+            }
+            level.values().forEach(dto -> dto.setHasMoreChildren(false));
+            level = nextLevel;
+        }
+
+        if (!level.isEmpty()) {
+            final Set<UUID> withChildren = new HashSet<>(documentNodeRepository.findParentIdsWithChildren(level.keySet()));
+            level.forEach((nodeId, dto) -> dto.setHasMoreChildren(withChildren.contains(nodeId)));
+        }
+        return root;
+    }
+
+    /**
+     * Builds the outline of a document from its nodes, read in document order without their content.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public DocumentOutline getOutline(final UUID rootId) {
+        final Map<UUID, DocumentNode> nodes = new HashMap<>();
+        documentNodeBatchRepository.forEachOutlineNode(rootId, node -> {
+            node.setChildren(new ArrayList<>());
+            if (node.getParent() != null) {
+                final DocumentNode parent = nodes.get(node.getParent().getId());
+                parent.getChildren().add(node);
+                node.setParent(parent);
+            }
+            nodes.put(node.getId(), node);
+        });
+
+        // saved without a document id, such a tree is walked through the lazy children
+        return DocumentOutline.of(nodes.isEmpty() ? getTree(rootId) : nodes.get(rootId));
+    }
+
     @Transactional
     @Override
-    public DocumentNode parse(final String pdfContent) {
-        final String[] lines = pdfContent.split("\\r\\n|\\n");
-        final DocumentParsingMetadata metadata = new DocumentParsingMetadata(lines.length);
+    public void addToCommentCount(final UUID id, final long delta) {
+        // read with a row lock, so concurrent comments on the same node never overwrite each other's count,
+        // and changed through the entity, so the cached node is updated instead of the whole region dropped
+        final DocumentNode node = documentNodeRepository.findForUpdateById(id)
+                .orElseThrow(EntityNotFoundException::new);
+        node.setCommentCount(node.getCommentCount() + delta);
+    }
+
+    /**
+     * Drops the nodes of a document from the second-level cache. Only needed for nodes written around
+     * hibernate, the cache follows the changes made through the entities.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void evictTree(final UUID rootId) {
+        evictNode(rootId);
+        documentNodeRepository.findIdsByDocumentId(rootId).forEach(this::evictNode);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public long countTree(final UUID rootId) {
+        return documentNodeRepository.countByDocumentId(rootId);
+    }
+
+    /**
+     * Deletes all the nodes of a document, and the comments on them, without loading them.
+     */
+    @Transactional
+    @Override
+    public void deleteTree(final UUID rootId) {
+        final List<UUID> ids = documentNodeRepository.findIdsByDocumentId(rootId);
+        if (ids.isEmpty()) {
+            // saved without a document id, such a tree can only be found by cascading from its root
+            documentNodeRepository.deleteById(rootId);
+            return;
+        }
+
+        documentNodeBatchRepository.deleteTree(rootId);
+        ids.forEach(this::evictNode);
+    }
+
+    /**
+     * Recounts the comments of every node whose counter drifted from its comments, and changes the comment
+     * version of the documents they belong to, so clients download them again.
+     *
+     * @return the number of repaired nodes
+     */
+    @Transactional
+    @Override
+    public int reconcileCommentCounts() {
+        final List<UUID> documentIds = documentNodeRepository.findDocumentIdsWithDriftedCommentCounts();
+        final int repaired = documentNodeRepository.reconcileCommentCounts();
+        if (!documentIds.isEmpty()) {
+            documentConsolidatedRepository.incrementCommentVersions(documentIds, new Date());
+        }
+        return repaired;
+    }
+
+    /**
+     * Gives the nodes of the trees saved before the nodes kept their document id that id, once, so they are
+     * read, versioned and deleted like every other tree.
+     *
+     * @return the number of updated nodes
+     */
+    @Transactional
+    @Override
+    public int fillDocumentIds() {
+        final List<UUID> ids = documentNodeBatchRepository.fillDocumentIds();
+        ids.forEach(this::evictNode);
+        return ids.size();
+    }
+
+    @Override
+    public DocumentNode parse(final PDFContent pdfContent) {
+        return documentParser.parse(new DocumentParsingContext(pdfContent));
+    }
+
+    private boolean isTreeCached(final UUID rootId) {
+        return secondLevelCache.containsEntity(DocumentNode.class, rootId)
+                && secondLevelCache.containsCollection(CHILDREN_ROLE, rootId);
+    }
 
-        return documentParser.parse(lines, metadata);
+    private void evictNode(final UUID id) {
+        secondLevelCache.evictEntityData(DocumentNode.class, id);
+        secondLevelCache.evictCollectionData(CHILDREN_ROLE, id);
     }
 }
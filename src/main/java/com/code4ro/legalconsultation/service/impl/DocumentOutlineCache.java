@@ -0,0 +1,60 @@
+package com.code4ro.legalconsultation.service.impl;
+
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Outlines of documents, keyed by the id of the consolidated document. They are built when a document is
+ * uploaded or updated, so reading the outline of a recent document needs no query. The number of outlines
+ * and their estimated size are published as document.outline.cache.entries and document.outline.cache.size.
+ */
+@Component
+public class DocumentOutlineCache {
+    private final Map<UUID, DocumentOutline> outlines;
+
+    @Autowired
+    public DocumentOutlineCache(@Value("${app.document.outlineCacheSize}") final int outlineCacheSize,
+                                final MeterRegistry meterRegistry) {
+        this.outlines = Collections.synchronizedMap(new LinkedHashMap<UUID, DocumentOutline>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<UUID, DocumentOutline> eldest) {
+                return size() > outlineCacheSize;
+            }
+        });
+        Gauge.builder("document.outline.cache.entries", outlines, Map::size)
+                .description("Document outlines kept in memory")
+                .register(meterRegistry);
+        Gauge.builder("document.outline.cache.size", this, DocumentOutlineCache::getSizeInBytes)
+                .description("Estimated heap taken by the document outlines kept in memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Optional<DocumentOutline> get(final UUID id) {
+        return Optional.ofNullable(outlines.get(id));
+    }
+
+    public void put(final UUID id, final DocumentOutline outline) {
+        outlines.put(id, outline);
+    }
+
+    public void remove(final UUID id) {
+        outlines.remove(id);
+    }
+
+    public long getSizeInBytes() {
+        synchronized (outlines) {
+            return outlines.values().stream().mapToLong(DocumentOutline::getSizeInBytes).sum();
+        }
+    }
+}
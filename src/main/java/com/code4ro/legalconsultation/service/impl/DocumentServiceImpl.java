@@ -1,56 +1,102 @@
 package com.code4ro.legalconsultation.service.impl;
 
 import com.code4ro.legalconsultation.model.dto.DocumentConsolidatedDto;
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionStage;
+import com.code4ro.legalconsultation.model.dto.DocumentMetadataDto;
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
 import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.dto.ResourceVersion;
 import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentType;
 import com.code4ro.legalconsultation.service.api.DocumentNodeService;
 import com.code4ro.legalconsultation.service.api.DocumentService;
 import com.code4ro.legalconsultation.service.api.PDFService;
 import com.code4ro.legalconsultation.service.api.StorageApi;
+import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
+import com.code4ro.legalconsultation.service.impl.pdf.ParsedDocumentCache;
+import com.fasterxml.jackson.databind.JsonSerializable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.persistence.EntityNotFoundException;
-import java.util.List;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 public class DocumentServiceImpl implements DocumentService {
     private static final Logger LOG = LoggerFactory.getLogger(DocumentServiceImpl.class);
+    // the columns the listing has indexes for
+    private static final Set<String> SORTABLE_PROPERTIES = new HashSet<>(Arrays.asList("dateOfReceipt", "documentNumber"));
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "dateOfReceipt");
 
     private final DocumentConsolidatedService documentConsolidatedService;
     private final DocumentMetadataService documentMetadataService;
     private final PDFService pdfService;
     private final DocumentNodeService documentNodeService;
     private final StorageApi storageApi;
+    private final ParsedDocumentCache parsedDocumentCache;
+    private final DocumentOutlineCache documentOutlineCache;
+    private final TaskExecutor documentDeletionExecutor;
+    private final long asyncDeletionNodeThreshold;
 
     @Autowired
     public DocumentServiceImpl(final DocumentConsolidatedService documentConsolidatedService,
                                final DocumentMetadataService documentMetadataService,
                                final PDFService pdfService,
                                final DocumentNodeService documentNodeService,
-                               final StorageApi storageApi) {
+                               final StorageApi storageApi,
+                               final ParsedDocumentCache parsedDocumentCache,
+                               final DocumentOutlineCache documentOutlineCache,
+                               @Qualifier("documentDeletionExecutor") final TaskExecutor documentDeletionExecutor,
+                               @Value("${app.persistence.asyncDeletionNodeThreshold}") final long asyncDeletionNodeThreshold) {
         this.documentConsolidatedService = documentConsolidatedService;
         this.documentMetadataService = documentMetadataService;
         this.pdfService = pdfService;
         this.documentNodeService = documentNodeService;
         this.storageApi = storageApi;
+        this.parsedDocumentCache = parsedDocumentCache;
+        this.documentOutlineCache = documentOutlineCache;
+        this.documentDeletionExecutor = documentDeletionExecutor;
+        this.asyncDeletionNodeThreshold = asyncDeletionNodeThreshold;
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<DocumentMetadata> fetchAll() {
-        return documentConsolidatedService.findAll()
-                .stream()
-                .map(DocumentConsolidated::getDocumentMetadata)
-                .collect(Collectors.toList());
+    public Page<DocumentMetadataDto> fetchAll(final DocumentType type,
+                                              final String initiator,
+                                              final Pageable pageable) {
+        return documentMetadataService.fetchAll(type, initiator, withStableSort(pageable));
+    }
+
+    // one aggregate over the metadata, no document is read
+    @Transactional(readOnly = true)
+    @Override
+    public ResourceVersion fetchListingVersion(final DocumentType type, final String initiator) {
+        return documentMetadataService.fetchListingVersion(type, initiator);
     }
 
     @Transactional(readOnly = true)
@@ -59,24 +105,78 @@ public class DocumentServiceImpl implements DocumentService {
         return documentConsolidatedService.getEntity(id).getDocumentMetadata();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public ResourceVersion fetchVersion(final UUID id) {
+        final DocumentMetadata metadata = documentConsolidatedService.getEntity(id).getDocumentMetadata();
+        return new ResourceVersion(String.valueOf(metadata.getVersion()), metadata.getLastModified());
+    }
+
+    // the nodes are not read, only the row of the document and its metadata
+    @Transactional(readOnly = true)
+    @Override
+    public ResourceVersion fetchConsolidatedVersion(final UUID id) {
+        final DocumentConsolidated consolidated = documentConsolidatedService.getEntity(id);
+        final DocumentMetadata metadata = consolidated.getDocumentMetadata();
+        return new ResourceVersion(metadata.getVersion() + "." + consolidated.getCommentVersion(),
+                latest(metadata.getLastModified(), consolidated.getCommentsLastModified()));
+    }
+
     @Transactional(readOnly = true)
     @Override
     public DocumentConsolidatedDto fetchOneConsolidated(final UUID id) {
         return documentConsolidatedService.getOne(id);
     }
 
-    @Transactional
+    @Override
+    public JsonSerializable streamOneConsolidated(final UUID id) {
+        return documentConsolidatedService.getOneStreamed(id);
+    }
+
+    // the nodes are only read for documents whose outline was not built since the last restart, or was evicted
+    @Override
+    public DocumentOutline fetchOutline(final UUID id) {
+        final Optional<DocumentOutline> cachedOutline = documentOutlineCache.get(id);
+        if (cachedOutline.isPresent()) {
+            return cachedOutline.get();
+        }
+
+        final UUID rootId = documentConsolidatedService.getEntity(id).getDocumentNode().getId();
+        final DocumentOutline outline = documentNodeService.getOutline(rootId);
+        documentOutlineCache.put(id, outline);
+        return outline;
+    }
+
     @Override
     public DocumentConsolidated create(final DocumentViewDto document, final MultipartFile file) {
+        return create(document, file, stage -> {
+        });
+    }
 
-        DocumentMetadata metadata = documentMetadataService.build(document);
-        final String filePath = storeFile(file);
-        metadata.setFilePath(filePath);
+    // only the final save needs a transaction, storing and parsing the file must not hold a connection
+    @Override
+    public DocumentConsolidated create(final DocumentViewDto document,
+                                       final MultipartFile file,
+                                       final Consumer<DocumentIngestionStage> stageListener) {
+        stageListener.accept(DocumentIngestionStage.STORING);
+        final TemporaryMultipartFile upload = copyUpload(file);
+        try {
+            DocumentMetadata metadata = documentMetadataService.build(document);
+            final String contentHash = upload.getContentHash();
+            metadata.setFilePath(findOrStoreFile(upload, contentHash));
+            metadata.setContentHash(contentHash);
+            metadata.setVersion(1);
+            metadata.setLastModified(new Date());
 
-        final String pdfContent = pdfService.readAsString(file);
-        final DocumentNode documentNode = documentNodeService.parse(pdfContent);
+            final DocumentNode documentNode = parse(upload, contentHash, stageListener);
 
-        return documentConsolidatedService.saveOne(new DocumentConsolidated(metadata, documentNode));
+            stageListener.accept(DocumentIngestionStage.PERSISTING);
+            final DocumentConsolidated saved = documentConsolidatedService.saveOne(new DocumentConsolidated(metadata, documentNode));
+            cacheOutline(saved.getId(), documentNode);
+            return saved;
+        } finally {
+            deleteCopy(file, upload);
+        }
     }
 
     @Transactional
@@ -85,28 +185,183 @@ public class DocumentServiceImpl implements DocumentService {
                                        final DocumentViewDto document,
                                        final MultipartFile file) {
         final DocumentConsolidated consolidated = documentConsolidatedService.getEntity(id);
+        final UUID previousRootId = consolidated.getDocumentNode().getId();
 
-        // TODO delete current file from storage and the document node
-
-        //update the metadata
-        DocumentMetadata metadata = documentMetadataService.build(document);
-        final String filePath = storeFile(file);
-        metadata.setFilePath(filePath);
-        metadata.setId(consolidated.getDocumentMetadata().getId());
+        final TemporaryMultipartFile upload = copyUpload(file);
+        try {
+            //update the metadata
+            final DocumentMetadata currentMetadata = consolidated.getDocumentMetadata();
+            final String previousFilePath = currentMetadata.getFilePath();
+            DocumentMetadata metadata = documentMetadataService.build(document);
+            final String contentHash = upload.getContentHash();
+            // a re-upload of the same file only changes the metadata, the file already stored is kept
+            final boolean sameFile = previousFilePath != null
+                    && Objects.equals(contentHash, currentMetadata.getContentHash());
+            metadata.setFilePath(sameFile ? previousFilePath : findOrStoreFile(upload, contentHash));
+            metadata.setContentHash(contentHash);
+            metadata.setId(currentMetadata.getId());
+            metadata.setVersion(currentMetadata.getVersion() + 1);
+            metadata.setLastModified(new Date());
 
-        final String pdfContent = pdfService.readAsString(file);
-        final DocumentNode documentNode = documentNodeService.parse(pdfContent);
+            final DocumentNode documentNode = parse(upload, contentHash, stage -> {
+            });
 
-        consolidated.setDocumentMetadata(metadata);
-        consolidated.setDocumentNode(documentNode);
-        return documentConsolidatedService.saveOne(consolidated);
+            consolidated.setDocumentMetadata(metadata);
+            consolidated.setDocumentNode(documentNode);
+            final DocumentConsolidated saved = documentConsolidatedService.saveOne(consolidated);
+            // the metadata is merged through its entity, so its cache entry is already up to date; the replaced
+            // nodes go the way the nodes of a deleted document do, and with them the replaced file
+            discardTree(previousRootId, sameFile ? null : previousFilePath);
+            cacheOutline(id, documentNode);
+            return saved;
+        } finally {
+            deleteCopy(file, upload);
+        }
     }
 
+    /**
+     * Deletes the document and its metadata right away and its nodes and comments with a few set-based
+     * statements, in the background for large documents. The stored file goes once the nodes are gone.
+     */
     @Transactional
     @Override
     public void deleteById(final UUID id) throws EntityNotFoundException {
-        documentConsolidatedService.getEntity(id);
+        final DocumentConsolidated consolidated = documentConsolidatedService.getEntity(id);
+        final UUID rootId = consolidated.getDocumentNode().getId();
+        final DocumentMetadata metadata = consolidated.getDocumentMetadata();
+        final String filePath = metadata.getFilePath();
+
         documentConsolidatedService.deleteById(id);
+        documentMetadataService.deleteById(metadata.getId().toString());
+        afterCommit(() -> documentOutlineCache.remove(id));
+        discardTree(rootId, filePath);
+    }
+
+    private static Date latest(final Date first, final Date second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return first.after(second) ? first : second;
+    }
+
+    // built from the parsed tree, which is still in memory; cached once the document is saved
+    private void cacheOutline(final UUID id, final DocumentNode documentNode) {
+        final DocumentOutline outline = DocumentOutline.of(documentNode);
+        afterCommit(() -> documentOutlineCache.put(id, outline));
+    }
+
+    private DocumentNode parse(final MultipartFile file,
+                               final String contentHash,
+                               final Consumer<DocumentIngestionStage> stageListener) {
+        final Optional<DocumentNode> cachedDocumentNode = parsedDocumentCache.get(contentHash);
+        if (cachedDocumentNode.isPresent()) {
+            LOG.info("Reusing the parse result of a previous upload with hash {}", contentHash);
+            return cachedDocumentNode.get();
+        }
+
+        stageListener.accept(DocumentIngestionStage.EXTRACTING);
+        final PDFContent pdfContent = pdfService.read(file);
+
+        stageListener.accept(DocumentIngestionStage.PARSING);
+        final DocumentNode documentNode = documentNodeService.parse(pdfContent);
+        parsedDocumentCache.put(contentHash, documentNode);
+        return documentNode;
+    }
+
+    // the id breaks ties, so no document shows up on two pages; it sorts the same way as the last column,
+    // which matches the order of the indexes since InnoDB appends the primary key to them
+    private Pageable withStableSort(final Pageable pageable) {
+        Sort sort = pageable.getSort();
+        Sort.Direction direction = Sort.Direction.DESC;
+        for (final Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new LegalValidationException("document.sort.unsupported", HttpStatus.BAD_REQUEST);
+            }
+            direction = order.getDirection();
+        }
+        if (sort.isUnsorted()) {
+            sort = DEFAULT_SORT;
+        }
+
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.and(Sort.by(direction, "id")));
+    }
+
+    // the asynchronous ingestion already made a hashed copy, which outlives the request
+    private TemporaryMultipartFile copyUpload(final MultipartFile file) {
+        if (file instanceof TemporaryMultipartFile) {
+            return (TemporaryMultipartFile) file;
+        }
+
+        try {
+            return TemporaryMultipartFile.copyOf(file);
+        } catch (IOException e) {
+            LOG.error("Could not read the uploaded document.", e);
+            throw new LegalValidationException("document.parse.pdf.failed", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private void deleteCopy(final MultipartFile file, final TemporaryMultipartFile upload) {
+        if (upload != file) {
+            upload.delete();
+        }
+    }
+
+    // identical content is stored once, the documents uploaded with it share the stored file
+    private String findOrStoreFile(final MultipartFile file, final String contentHash) {
+        final Optional<String> storedFilePath = documentMetadataService.findFilePath(contentHash);
+        if (storedFilePath.isPresent()) {
+            LOG.info("Reusing the stored file of a previous upload with hash {}", contentHash);
+            return storedFilePath.get();
+        }
+        return storeFile(file);
+    }
+
+    // the nodes must no longer be referenced by any document, the file is deleted once they are gone
+    private void discardTree(final UUID rootId, final String filePath) {
+        if (documentNodeService.countTree(rootId) > asyncDeletionNodeThreshold) {
+            // nothing references the nodes anymore, so they can go in a transaction of their own
+            afterCommit(() -> documentDeletionExecutor.execute(() -> deleteTree(rootId, filePath)));
+        } else {
+            documentNodeService.deleteTree(rootId);
+            afterCommit(() -> deleteFile(filePath));
+        }
+    }
+
+    private void deleteTree(final UUID rootId, final String filePath) {
+        try {
+            documentNodeService.deleteTree(rootId);
+        } catch (Exception e) {
+            LOG.error("Could not delete the nodes of document {}.", rootId, e);
+            return;
+        }
+        deleteFile(filePath);
+    }
+
+    // a file shared with another document is kept until the last one is gone
+    private void deleteFile(final String filePath) {
+        if (filePath == null || documentMetadataService.isFileReferenced(filePath)) {
+            return;
+        }
+
+        try {
+            storageApi.deleteFile(filePath);
+        } catch (Exception e) {
+            LOG.warn("Could not delete stored document {}.", filePath, e);
+        }
+    }
+
+    private void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private String storeFile(MultipartFile file) {
@@ -1,35 +1,42 @@
 package com.code4ro.legalconsultation.service.impl;
 
+import com.code4ro.legalconsultation.converters.CommentMapper;
+import com.code4ro.legalconsultation.converters.DocumentMetadataMapper;
+import com.code4ro.legalconsultation.converters.DocumentNodeMapper;
+import com.code4ro.legalconsultation.converters.UserMapper;
 import com.code4ro.legalconsultation.model.dto.BaseEntityDto;
+import com.code4ro.legalconsultation.model.dto.CommentDto;
 import com.code4ro.legalconsultation.model.dto.DocumentNodeDto;
 import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
 import com.code4ro.legalconsultation.model.dto.UserDto;
 import com.code4ro.legalconsultation.model.persistence.BaseEntity;
+import com.code4ro.legalconsultation.model.persistence.Comment;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
 import com.code4ro.legalconsultation.model.persistence.User;
 import com.code4ro.legalconsultation.service.api.MapperService;
-import org.modelmapper.AbstractConverter;
 import org.modelmapper.ModelMapper;
-import org.springframework.context.ApplicationListener;
-import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-public class MapperServiceImpl implements MapperService, ApplicationListener<ContextRefreshedEvent> {
+public class MapperServiceImpl implements MapperService {
     private final ModelMapper modelMapper;
+    // hand written mappers, by source and target type; any other pair goes through the model mapper
+    private final Map<Class<?>, Map<Class<?>, Function<Object, ?>>> mappers = new HashMap<>();
 
     public MapperServiceImpl() {
         this.modelMapper = new ModelMapper();
 
         addCustomMappings();
-        addCustomTypeMaps();
+        addMappers();
     }
 
     private void addCustomMappings() {
@@ -39,26 +46,38 @@ public class MapperServiceImpl implements MapperService, ApplicationListener<Con
                 .addMapping(BaseEntityDto::getId, BaseEntity::setId);
     }
 
-    private void addCustomTypeMaps() {
-        modelMapper.createTypeMap(User.class, UserDto.class)
-                .includeBase(BaseEntity.class, BaseEntityDto.class);
-        modelMapper.createTypeMap(UserDto.class, User.class)
-                .includeBase(BaseEntityDto.class, BaseEntity.class);
-        modelMapper.createTypeMap(DocumentMetadata.class, DocumentViewDto.class);
-        modelMapper.createTypeMap(DocumentViewDto.class, DocumentMetadata.class);
-        modelMapper.createTypeMap(DocumentNode.class, DocumentNodeDto.class);
+    private void addMappers() {
+        addMapper(User.class, UserDto.class, UserMapper::toDto);
+        addMapper(UserDto.class, User.class, UserMapper::toEntity);
+        addMapper(Comment.class, CommentDto.class, CommentMapper::toDto);
+        addMapper(CommentDto.class, Comment.class, CommentMapper::toEntity);
+        addMapper(DocumentMetadata.class, DocumentViewDto.class, DocumentMetadataMapper::toDto);
+        addMapper(DocumentViewDto.class, DocumentMetadata.class, DocumentMetadataMapper::toEntity);
+        addMapper(DocumentNode.class, DocumentNodeDto.class, DocumentNodeMapper::toDto);
     }
 
-    @Override
-    public void onApplicationEvent(ContextRefreshedEvent event) {
-        final Collection<AbstractConverter> converters =
-                event.getApplicationContext().getBeansOfType(AbstractConverter.class).values();
-        converters.forEach(modelMapper::addConverter);
+    private <S, T> void addMapper(final Class<S> sourceType,
+                                  final Class<T> targetType,
+                                  final Function<S, T> mapper) {
+        mappers.computeIfAbsent(sourceType, type -> new HashMap<>())
+                .put(targetType, source -> mapper.apply(sourceType.cast(source)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T mapOne(final Object source, final Class<T> targetType) {
+        // entities loaded lazily are hibernate proxies, subclasses of the mapped type
+        for (Class<?> sourceType = source.getClass(); sourceType != Object.class; sourceType = sourceType.getSuperclass()) {
+            final Map<Class<?>, Function<Object, ?>> mappersByTarget = mappers.get(sourceType);
+            if (mappersByTarget != null && mappersByTarget.containsKey(targetType)) {
+                return (T) mappersByTarget.get(targetType).apply(source);
+            }
+        }
+        return modelMapper.map(source, targetType);
     }
 
     @Override
     public <T> T map(Object source, Class<T> targetType) {
-        return source != null ? modelMapper.map(source, targetType) : null;
+        return source != null ? mapOne(source, targetType) : null;
     }
 
     @Override
@@ -68,7 +87,7 @@ public class MapperServiceImpl implements MapperService, ApplicationListener<Con
         }
 
         return sourceList.stream()
-                .map(listElement -> modelMapper.map(listElement, targetClass))
+                .<T>map(listElement -> mapOne(listElement, targetClass))
                 .collect(Collectors.toList());
     }
 
@@ -78,6 +97,6 @@ public class MapperServiceImpl implements MapperService, ApplicationListener<Con
             return Page.empty();
         }
 
-        return sourcePage.map(pageElement -> modelMapper.map(pageElement, targetClass));
+        return sourcePage.map(pageElement -> mapOne(pageElement, targetClass));
     }
 }
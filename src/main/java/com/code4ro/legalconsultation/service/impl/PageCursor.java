@@ -0,0 +1,83 @@
+package com.code4ro.legalconsultation.service.impl;
+
+import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
+import com.code4ro.legalconsultation.model.dto.CursorPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Continuation token of the keyset paginated lists: the sort key and the id of the last element of a page.
+ * The next page starts right after them, so deep pages cost as much as the first one. It is base64 encoded,
+ * clients should only pass it back.
+ */
+final class PageCursor {
+    private static final String SEPARATOR = "\n";
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private final UUID id;
+    private final String key;
+
+    private PageCursor(final UUID id, final String key) {
+        this.id = id;
+        this.key = key;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    static String encode(final UUID id, final String key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + SEPARATOR + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decode(final String token) {
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 2);
+            if (parts.length == 2) {
+                return new PageCursor(UUID.fromString(parts[0]), parts[1]);
+            }
+        } catch (IllegalArgumentException e) {
+            // not base64 or not an id, rejected below
+        }
+        throw invalid();
+    }
+
+    static LegalValidationException invalid() {
+        return new LegalValidationException("pagination.cursor.invalid", HttpStatus.BAD_REQUEST);
+    }
+
+    // one row more than the page size, to know whether there is a next page without counting
+    static Pageable limit(final int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new LegalValidationException("pagination.size.invalid", HttpStatus.BAD_REQUEST);
+        }
+        return PageRequest.of(0, size + 1);
+    }
+
+    static <E, T> CursorPage<T> page(final List<E> rows, final int size,
+                                     final Function<E, String> cursorOf,
+                                     final Function<List<E>, List<T>> mapper) {
+        final CursorPage<T> page = new CursorPage<>();
+        if (rows.size() > size) {
+            final List<E> content = rows.subList(0, size);
+            page.setContent(mapper.apply(content));
+            page.setNext(cursorOf.apply(content.get(size - 1)));
+        } else {
+            page.setContent(mapper.apply(rows));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,119 @@
+package com.code4ro.legalconsultation.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Copy of an uploaded file that outlives the request which received it,
+ * so that it can be processed after the response has been sent.
+ * The upload is hashed while it is copied, so its content is known before anything else reads it.
+ */
+public class TemporaryMultipartFile implements MultipartFile {
+    private static final Logger LOG = LoggerFactory.getLogger(TemporaryMultipartFile.class);
+    private static final String TEMP_FILE_PREFIX = "legal-consultation-upload";
+
+    private final String name;
+    private final String originalFilename;
+    private final String contentType;
+    private final Path path;
+    private final String contentHash;
+
+    private TemporaryMultipartFile(final MultipartFile source, final Path path, final String contentHash) {
+        this.name = source.getName();
+        this.originalFilename = source.getOriginalFilename();
+        this.contentType = source.getContentType();
+        this.path = path;
+        this.contentHash = contentHash;
+    }
+
+    public static TemporaryMultipartFile copyOf(final MultipartFile source) throws IOException {
+        final MessageDigest digest = sha256();
+        final Path path = Files.createTempFile(TEMP_FILE_PREFIX, null);
+        try (InputStream input = new DigestInputStream(source.getInputStream(), digest)) {
+            Files.copy(input, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return new TemporaryMultipartFile(source, path, String.format("%064x", new BigInteger(1, digest.digest())));
+    }
+
+    /**
+     * SHA-256 of the content, hex encoded.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(final File dest) throws IOException {
+        Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static MessageDigest sha256() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.warn("Could not delete temporary upload {}", path, e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.code4ro.legalconsultation.service.impl;
 
 import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
+import com.code4ro.legalconsultation.model.dto.CursorPage;
 import com.code4ro.legalconsultation.model.dto.UserDto;
 import com.code4ro.legalconsultation.model.persistence.User;
 import com.code4ro.legalconsultation.model.persistence.UserRole;
@@ -83,6 +84,28 @@ public class UserService {
         return mapperService.mapPage(userPage, UserDto.class);
     }
 
+    /**
+     * Users ordered by email and id, starting after the cursor, without the count and offset scan of the pages.
+     */
+    public CursorPage<UserDto> findAll(final String cursor, final int size, final boolean count) {
+        final Pageable limit = PageCursor.limit(size);
+        final List<User> users;
+        if (cursor == null) {
+            users = userRepository.findFirstKeysetPage(limit);
+        } else {
+            final PageCursor after = PageCursor.decode(cursor);
+            users = userRepository.findKeysetPageAfter(after.getKey(), after.getId(), limit);
+        }
+
+        final CursorPage<UserDto> page = PageCursor.page(users, size,
+                user -> PageCursor.encode(user.getId(), user.getEmail()),
+                content -> mapperService.mapList(content, UserDto.class));
+        if (count) {
+            page.setTotalElements(userRepository.count());
+        }
+        return page;
+    }
+
     public Optional<User> findByEmail(final String email) {
         return userRepository.findByEmail(email);
     }
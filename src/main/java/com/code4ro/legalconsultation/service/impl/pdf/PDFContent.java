@@ -0,0 +1,20 @@
+package com.code4ro.legalconsultation.service.impl.pdf;
+
+import lombok.Getter;
+
+import java.util.BitSet;
+
+/**
+ * Text extracted from a single PDF together with the lines of it that are written in bold.
+ */
+@Getter
+public class PDFContent {
+    private final String text;
+    // indexes of the bold lines, counting the lines of the text from 0
+    private final BitSet boldLines;
+
+    public PDFContent(final String text, final BitSet boldLines) {
+        this.text = text;
+        this.boldLines = boldLines;
+    }
+}
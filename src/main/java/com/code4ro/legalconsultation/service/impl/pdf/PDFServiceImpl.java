@@ -3,39 +3,98 @@ package com.code4ro.legalconsultation.service.impl.pdf;
 import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
 import com.code4ro.legalconsultation.service.api.PDFService;
 import com.code4ro.legalconsultation.service.impl.pdf.reader.BasicOARPdfReader;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDDocumentLoader;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFExtractionMode;
 import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFReader;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.ThreadAllocation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class PDFServiceImpl implements PDFService {
     private static final Logger LOG = LoggerFactory.getLogger(PDFServiceImpl.class);
 
     private final BasicOARPdfReader basicOARPdfReader;
+    private final PDFExtractionMode extractionMode;
+    private final MemoryUsageSetting memoryUsageSetting;
+    private final DistributionSummary allocationSummary;
 
     @Autowired
-    public PDFServiceImpl(final BasicOARPdfReader basicOARPdfReader) {
+    public PDFServiceImpl(final BasicOARPdfReader basicOARPdfReader,
+                          @Value("${app.pdf.extractionMode}") final PDFExtractionMode extractionMode,
+                          @Value("${app.pdf.maxMainMemoryBytes}") final long maxMainMemoryBytes,
+                          final MeterRegistry meterRegistry) {
         this.basicOARPdfReader = basicOARPdfReader;
+        this.extractionMode = extractionMode;
+        this.memoryUsageSetting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+        this.allocationSummary = DistributionSummary.builder("pdf.read.heap.allocation")
+                .description("Heap allocated while reading an upload, by the calling thread and the extraction " +
+                        "threads together. It is the total allocated, not the peak: the garbage collected during " +
+                        "the read is counted too. Not recorded on JVMs that do not count allocations per thread")
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
     @Override
-    public String readAsString(final MultipartFile file) {
-
-        try {
-            final PDDocument doc = PDDocument.load(file.getInputStream());
+    public PDFContent read(final MultipartFile file) {
+        final long allocatedBefore = ThreadAllocation.current();
+        final Allocation allocation = new Allocation();
+        // the document buffers up to maxMainMemoryBytes on the heap and the rest in a scratch file deleted on close
+        try (PDDocument doc = PDDocument.load(file.getInputStream(), memoryUsageSetting)) {
             // TODO: add a more general way for getting the right parser based on document template once we have more document types
             final PDFReader pdfReader = basicOARPdfReader;
+            if (extractionMode == PDFExtractionMode.PARALLEL) {
+                return pdfReader.getContent(doc, new PDDocumentLoader() {
+                    @Override
+                    public PDDocument load() throws IOException {
+                        return PDDocument.load(file.getInputStream(), memoryUsageSetting);
+                    }
+
+                    @Override
+                    public void copyRead(final long allocatedBytes) {
+                        allocation.add(allocatedBytes);
+                    }
+                });
+            }
             return pdfReader.getContent(doc);
         } catch (IOException e) {
             LOG.warn("Exception while parsing PDF file", e);
             throw new LegalValidationException("document.parse.pdf.failed", HttpStatus.BAD_REQUEST);
+        } finally {
+            allocation.add(ThreadAllocation.since(allocatedBefore));
+            if (allocation.isCounted()) {
+                allocationSummary.record(allocation.bytes.sum());
+            }
+        }
+    }
+
+    // added up from every thread that took part in reading one upload
+    private static class Allocation {
+        private final LongAdder bytes = new LongAdder();
+        private volatile boolean unsupported;
+
+        private void add(final long allocatedBytes) {
+            if (allocatedBytes == ThreadAllocation.UNSUPPORTED) {
+                unsupported = true;
+            } else {
+                bytes.add(allocatedBytes);
+            }
+        }
+
+        private boolean isCounted() {
+            return !unsupported;
         }
     }
 }
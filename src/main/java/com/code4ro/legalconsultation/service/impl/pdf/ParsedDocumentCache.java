@@ -0,0 +1,133 @@
+package com.code4ro.legalconsultation.service.impl.pdf;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Parse results of recently uploaded PDFs, keyed by the SHA-256 of the file and the parser version,
+ * so uploading the same file again skips reading and parsing it. Trees are kept serialized and every
+ * hit builds new, unsaved nodes, since the returned tree is persisted by the caller.
+ */
+@Component
+public class ParsedDocumentCache {
+    // bump whenever the reader or the parsers change the tree they build for a file
+    public static final int PARSER_VERSION = 1;
+
+    private static final int NO_TYPE = -1;
+    private static final int NULL_STRING = -1;
+
+    private final Map<String, byte[]> trees;
+
+    public ParsedDocumentCache(@Value("${app.pdf.parseCacheSize}") final int parseCacheSize) {
+        this.trees = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, byte[]> eldest) {
+                return size() > parseCacheSize;
+            }
+        });
+    }
+
+    public Optional<DocumentNode> get(final String contentHash) {
+        final byte[] tree = trees.get(getKey(contentHash));
+        return tree == null ? Optional.empty() : Optional.of(deserialize(tree));
+    }
+
+    public void put(final String contentHash, final DocumentNode documentNode) {
+        trees.put(getKey(contentHash), serialize(documentNode));
+    }
+
+    private String getKey(final String contentHash) {
+        return contentHash + ":" + PARSER_VERSION;
+    }
+
+    private byte[] serialize(final DocumentNode documentNode) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            write(output, documentNode);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private void write(final DataOutputStream output, final DocumentNode documentNode) throws IOException {
+        final DocumentNodeType type = documentNode.getDocumentNodeType();
+        output.writeInt(type == null ? NO_TYPE : type.ordinal());
+        writeString(output, documentNode.getIdentifier());
+        writeString(output, documentNode.getTitle());
+        writeString(output, documentNode.getContent());
+
+        final List<DocumentNode> children = documentNode.getChildren();
+        output.writeInt(children == null ? 0 : children.size());
+        if (children != null) {
+            for (final DocumentNode child : children) {
+                write(output, child);
+            }
+        }
+    }
+
+    private void writeString(final DataOutputStream output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL_STRING);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private DocumentNode deserialize(final byte[] tree) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(tree))) {
+            return read(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private DocumentNode read(final DataInputStream input) throws IOException {
+        final DocumentNode documentNode = new DocumentNode();
+        final int type = input.readInt();
+        documentNode.setDocumentNodeType(type == NO_TYPE ? null : DocumentNodeType.values()[type]);
+        documentNode.setIdentifier(readString(input));
+        documentNode.setTitle(readString(input));
+        documentNode.setContent(readString(input));
+
+        final int childCount = input.readInt();
+        final List<DocumentNode> children = new ArrayList<>(childCount);
+        for (int i = 0; i < childCount; i++) {
+            children.add(read(input));
+        }
+        documentNode.setChildren(children);
+
+        return documentNode;
+    }
+
+    private String readString(final DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
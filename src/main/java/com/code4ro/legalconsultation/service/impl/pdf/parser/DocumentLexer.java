@@ -0,0 +1,83 @@
+package com.code4ro.legalconsultation.service.impl.pdf.parser;
+
+import java.util.regex.Matcher;
+
+/**
+ * Classifies every line of a document once. The first character of a line decides the only start token
+ * it could be, and only that token's regex is run, so regular text lines are mostly rejected without any regex.
+ */
+public class DocumentLexer {
+    private static final String CHAPTER_PREFIX = "CAPITOLUL ";
+    private static final String SECTION_PREFIX = "SECŢIUNEA";
+    private static final String ARTICLE_PREFIX = "Art. ";
+
+    private DocumentLexer() {
+    }
+
+    public static TokenStream lex(final String[] rawLines) {
+        final TokenStream tokens = new TokenStream(rawLines.length);
+        for (int i = 0; i < rawLines.length; i++) {
+            final String rawLine = rawLines[i];
+            final String line = rawLine.trim();
+
+            final StartToken candidate = getCandidate(line);
+            final Matcher matcher = candidate != null ? candidate.pattern.matcher(line) : null;
+            final StartToken lineToken = matcher != null && matcher.matches() ? candidate : null;
+            final StartToken rawLineToken = rawLine.length() == line.length() ? lineToken : getStartToken(rawLine);
+
+            tokens.set(i, line, rawLineToken, lineToken == null, isWithoutTitle(rawLineToken, line));
+            if (lineToken != null) {
+                tokens.setSpans(i,
+                        matcher.start(lineToken.identifierGroup), matcher.end(lineToken.identifierGroup),
+                        matcher.start(lineToken.titleGroup), matcher.end(lineToken.titleGroup));
+            }
+        }
+
+        return tokens;
+    }
+
+    public static StartToken getStartToken(final String line) {
+        final StartToken candidate = getCandidate(line);
+        if (candidate == null) {
+            return null;
+        }
+
+        return candidate.pattern.matcher(line).matches() ? candidate : null;
+    }
+
+    private static StartToken getCandidate(final String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+
+        final char first = line.charAt(0);
+        switch (first) {
+            case 'C':
+                return line.startsWith(CHAPTER_PREFIX) ? StartToken.CHAPTER : null;
+            case 'S':
+                return line.startsWith(SECTION_PREFIX) ? StartToken.SECTION : null;
+            case 'A':
+                return line.startsWith(ARTICLE_PREFIX) ? StartToken.ARTICLE : null;
+            case '(':
+                return StartToken.PARAGRAPH;
+            default:
+                return isAlignmentStart(line) ? StartToken.ALIGNMENT : null;
+        }
+    }
+
+    // an alignment starts with lowercase letters followed by ')'
+    private static boolean isAlignmentStart(final String line) {
+        int index = 0;
+        while (index < line.length() && line.charAt(index) >= 'a' && line.charAt(index) <= 'z') {
+            index++;
+        }
+
+        return index < line.length() && line.charAt(index) == ')';
+    }
+
+    private static boolean isWithoutTitle(final StartToken token, final String line) {
+        return token != null
+                && token.patternWithoutTitle != null
+                && token.patternWithoutTitle.matcher(line).matches();
+    }
+}
@@ -2,78 +2,112 @@ package com.code4ro.legalconsultation.service.impl.pdf.parser;
 
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
 import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
-import com.code4ro.legalconsultation.service.impl.pdf.BoldAreasRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public abstract class DocumentNodeParser {
+    private static final String TITLE_LINE_SEPARATOR = " ";
 
     @Lazy
     @Autowired
     private DocumentNodeParserFactory documentNodeParserFactory;
-    @Autowired
-    private BoldAreasRepository boldAreasRepository;
-    @Autowired
-    private StartTokenMatcher startTokenMatcher;
 
-    private String[] lines;
-    private DocumentParsingMetadata metadata;
+    /**
+     * Builds the tree of the node starting at the current line. The open nodes are kept on an explicit stack
+     * instead of recursing into the child parsers, so long runs of nodes cost no thread stack.
+     */
+    public DocumentNode parse(final DocumentParsingContext context) {
+        // a child always has a deeper token than its parent, so there is at most one open node per token
+        final DocumentNodeParser[] openParsers = new DocumentNodeParser[StartToken.values().length];
+        final DocumentNode[] openNodes = new DocumentNode[StartToken.values().length];
+        final DocumentNode root = parseNode(context);
+        openParsers[0] = this;
+        openNodes[0] = root;
+        int depth = 0;
+
+        while (depth >= 0) {
+            final StartToken lineType = context.getCurrentToken();
+            if (!openParsers[depth].isChildType(lineType)) {
+                depth--;
+                continue;
+            }
+
+            final DocumentNodeParser parser = documentNodeParserFactory.getParser(lineType);
+            final DocumentNode child = parser.parseNode(context);
+            openNodes[depth].getChildren().add(child);
+            depth++;
+            openParsers[depth] = parser;
+            openNodes[depth] = child;
+        }
 
-    public DocumentNode parse(final String[] lines, DocumentParsingMetadata metadata) {
-        this.lines = lines;
-        this.metadata = metadata;
+        return root;
+    }
 
+    // the node starting at the current line, without its children
+    private DocumentNode parseNode(final DocumentParsingContext context) {
         final DocumentNode documentNode = new DocumentNode();
         documentNode.setDocumentNodeType(getNodeType());
 
         final StringBuilder contentBuilder = new StringBuilder();
 
-        final Pattern pattern = Pattern.compile(getCurrentToken().regex);
-        final String title = getTitle();
-        final Matcher titleMatcher = pattern.matcher(title);
-        titleMatcher.find();
-        documentNode.setIdentifier(getIdentifier(titleMatcher));
-        if (hasTitle()) {
-            setTitle(documentNode, title, titleMatcher);
+        final TokenStream tokens = context.getTokens();
+        final int startLineIndex = context.getCurrentLineIndex();
+        final String title = getTitle(context);
+        if (isLexedStartLine(tokens, startLineIndex, title)) {
+            documentNode.setIdentifier(tokens.getIdentifier(startLineIndex));
+            if (hasTitle()) {
+                setTitle(documentNode, title, tokens.getTitle(startLineIndex));
+            } else {
+                contentBuilder.append(tokens.getTitle(startLineIndex));
+            }
         } else {
-            contentBuilder.append(getTitle(titleMatcher));
+            // the title comes from a bold area rather than the start line, so it has to be matched
+            final Matcher titleMatcher = getCurrentToken().pattern.matcher(title);
+            titleMatcher.find();
+            documentNode.setIdentifier(getIdentifier(titleMatcher));
+            if (hasTitle()) {
+                setTitle(documentNode, title, getTitle(titleMatcher));
+            } else {
+                contentBuilder.append(getTitle(titleMatcher));
+            }
         }
 
-        documentNode.setContent(getNodeContent(contentBuilder));
-        documentNode.setChildren(getChildrenNodes());
+        documentNode.setContent(getNodeContent(context, contentBuilder));
+        documentNode.setChildren(new ArrayList<>());
 
         return documentNode;
     }
 
-    protected void setTitle(final DocumentNode documentNode, final String title, final Matcher titleMatcher) {
-        documentNode.setTitle(getTitle(titleMatcher));
+    protected void setTitle(final DocumentNode documentNode, final String title, final String matchedTitle) {
+        documentNode.setTitle(matchedTitle);
     }
 
-    protected abstract String getTitle(final Matcher titleMatcher);
+    protected String getTitle(final Matcher titleMatcher) {
+        return titleMatcher.group(getCurrentToken().titleGroup);
+    }
 
-    protected abstract String getIdentifier(final Matcher title);
+    protected String getIdentifier(final Matcher titleMatcher) {
+        return titleMatcher.group(getCurrentToken().identifierGroup);
+    }
 
     protected abstract StartToken getCurrentToken();
 
     protected abstract DocumentNodeType getNodeType();
 
-    protected abstract Pattern getPatternWithoutTitle();
-
     protected boolean hasTitle() {
         return true;
     }
 
-    private boolean isSameNodeType(final String line) {
-        return startTokenMatcher.startsWith(getCurrentToken(), line);
+    private boolean isLexedStartLine(final TokenStream tokens, final int lineIndex, final String title) {
+        return tokens.getToken(lineIndex) == getCurrentToken()
+                && tokens.hasSpans(lineIndex)
+                && tokens.getLine(lineIndex).equals(title);
     }
 
-    private boolean isChildType(final String line) {
-        final StartToken lineType = startTokenMatcher.getStartToken(line);
+    private boolean isChildType(final StartToken lineType) {
         if (lineType == null) {
             return false;
         }
@@ -81,67 +115,49 @@ public abstract class DocumentNodeParser {
         return lineType.ordinal() > getCurrentToken().ordinal();
     }
 
-    private String getTitle() {
-        String currentLine = lines[metadata.getCurrentLineIndex()].trim();
-        if (isTokenWithoutTitle(currentLine)) {
-            metadata.next();
+    private String getTitle(final DocumentParsingContext context) {
+        final String currentLine = context.getCurrentLine();
+        final boolean boldTitle = context.isCurrentLineBold() && !isTokenWithoutTitle(context);
+        context.next();
+        if (!boldTitle) {
             return currentLine;
         }
 
-        final String result = boldAreasRepository.getMatchingBoldArea(currentLine);
-        if (result == null) {
-            metadata.next();
-            return currentLine;
-        }
-
-        skipTitleLines(result);
-
-        return result;
+        return getBoldTitle(context, currentLine);
     }
 
-    private void skipTitleLines(final String title) {
-        String currentLine = getNextLine();
-        while (title.contains(currentLine)) {
-            currentLine = getNextLine();
+    // a bold title goes on over the bold lines that follow it, up to the start of the next node
+    private String getBoldTitle(final DocumentParsingContext context, final String firstLine) {
+        final StringBuilder titleBuilder = new StringBuilder(firstLine);
+        while (context.isCurrentLineBold() && context.isCurrentLineRegular()) {
+            final String currentLine = context.getCurrentLine();
+            if (!currentLine.isEmpty()) {
+                titleBuilder.append(TITLE_LINE_SEPARATOR);
+                titleBuilder.append(currentLine);
+            }
+            context.next();
         }
-    }
 
-    public String getNextLine() {
-        metadata.next();
-        return lines[metadata.getCurrentLineIndex()].trim();
+        return titleBuilder.toString();
     }
 
-    private boolean isTokenWithoutTitle(final String currentLine) {
-        final Matcher matcher = getPatternWithoutTitle().matcher(currentLine);
-        return matcher.matches();
+    private boolean isTokenWithoutTitle(final DocumentParsingContext context) {
+        return context.getCurrentToken() == getCurrentToken()
+                && context.getTokens().isWithoutTitle(context.getCurrentLineIndex());
     }
 
-    private String getNodeContent(final StringBuilder contentBuilder) {
-        String currentLine = lines[metadata.getCurrentLineIndex()].trim();
-        while (startTokenMatcher.isRegularLine(currentLine)) {
-            contentBuilder.append(currentLine);
+    private String getNodeContent(final DocumentParsingContext context, final StringBuilder contentBuilder) {
+        while (context.isCurrentLineRegular()) {
+            contentBuilder.append(context.getCurrentLine());
 
-            if (metadata.isLastLine()) {
+            if (context.isLastLine()) {
                 break;
             }
 
-            currentLine = getNextLine();
+            context.next();
         }
 
         final String content = contentBuilder.toString();
         return content.isEmpty() ? null : content;
     }
-
-    private List<DocumentNode> getChildrenNodes() {
-        final List<DocumentNode> children = new ArrayList<>();
-        String currentLine = lines[metadata.getCurrentLineIndex()];
-        while (!isSameNodeType(currentLine) && isChildType(currentLine)) {
-            final DocumentNodeParser parser = documentNodeParserFactory.getParser(currentLine);
-            final DocumentNode child = parser.parse(lines, metadata);
-            children.add(child);
-            currentLine = lines[metadata.getCurrentLineIndex()];
-        }
-
-        return children;
-    }
 }
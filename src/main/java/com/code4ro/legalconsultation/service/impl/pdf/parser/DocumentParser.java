@@ -5,12 +5,9 @@ import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
 import org.springframework.stereotype.Component;
 
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 public class DocumentParser extends DocumentNodeParser {
-    private final String tokenWithoutTitleRegex = "(?!.*).";
-
     @Override
     protected String getTitle(final Matcher matcher) {
         return null;
@@ -32,12 +29,7 @@ public class DocumentParser extends DocumentNodeParser {
     }
 
     @Override
-    protected Pattern getPatternWithoutTitle() {
-        return Pattern.compile(tokenWithoutTitleRegex);
-    }
-
-    @Override
-    protected void setTitle(final DocumentNode documentNode, final String title, final Matcher titleMatcher) {
+    protected void setTitle(final DocumentNode documentNode, final String title, final String matchedTitle) {
         documentNode.setTitle(title);
     }
 }
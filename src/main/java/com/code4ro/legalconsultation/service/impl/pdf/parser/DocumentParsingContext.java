@@ -0,0 +1,50 @@
+package com.code4ro.legalconsultation.service.impl.pdf.parser;
+
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
+import lombok.Getter;
+
+import java.util.BitSet;
+
+/**
+ * State of a single document parse. The parsers themselves are shared singletons,
+ * so everything that belongs to one document lives here and is passed along.
+ */
+@Getter
+public class DocumentParsingContext {
+    private final TokenStream tokens;
+    private final BitSet boldLines;
+    private int currentLineIndex;
+
+    public DocumentParsingContext(final PDFContent pdfContent) {
+        this.tokens = DocumentLexer.lex(pdfContent.getText().split("\\r\\n|\\n"));
+        this.boldLines = pdfContent.getBoldLines();
+        this.currentLineIndex = 0;
+    }
+
+    /**
+     * the current line, trimmed
+     */
+    public String getCurrentLine() {
+        return tokens.getLine(currentLineIndex);
+    }
+
+    public StartToken getCurrentToken() {
+        return tokens.getToken(currentLineIndex);
+    }
+
+    public boolean isCurrentLineRegular() {
+        return tokens.isRegular(currentLineIndex);
+    }
+
+    public boolean isCurrentLineBold() {
+        return boldLines.get(currentLineIndex);
+    }
+
+    public void next() {
+        currentLineIndex++;
+    }
+
+    public boolean isLastLine() {
+        return currentLineIndex == tokens.size() - 1;
+    }
+}
@@ -1,16 +1,27 @@
 package com.code4ro.legalconsultation.service.impl.pdf.parser;
 
+import java.util.regex.Pattern;
+
 public enum StartToken {
-    DOCUMENT("(?!.*)."),
-    CHAPTER("(CAPITOLUL) (.*?): (.*)"),
-    SECTION("(SECŢIUNEA) ([0-9]*)(:? (.*)?)?"),
-    ARTICLE("(Art[.]) ([0-9]*)(:? (.*)?)?"),
-    PARAGRAPH("[(]([0-9]*?)[)]((?! ).*)"),
-    ALIGNMENT("(^[a-z]*?)[)] ?((?! ).*)");
+    DOCUMENT("(?!.*).", null, 0, 0),
+    CHAPTER("(CAPITOLUL) (.*?): (.*)", "(CAPITOLUL) ([^:]*?)$", 2, 3),
+    SECTION("(SECŢIUNEA) ([0-9]*)(:? (.*)?)?", "(SECŢIUNEA) ([^:]*?)$", 2, 4),
+    ARTICLE("(Art[.]) ([0-9]*)(:? (.*)?)?", "(Art[.]) ([0-9]*)$", 2, 4),
+    PARAGRAPH("[(]([0-9]*?)[)]((?! ).*)", null, 1, 2),
+    ALIGNMENT("(^[a-z]*?)[)] ?((?! ).*)", null, 1, 2);
 
     public final String regex;
+    public final Pattern pattern;
+    // matches the start lines that carry no title, e.g. "Art. 5"; null when the token always has one
+    public final Pattern patternWithoutTitle;
+    public final int identifierGroup;
+    public final int titleGroup;
 
-    StartToken(String regex) {
+    StartToken(String regex, String regexWithoutTitle, int identifierGroup, int titleGroup) {
         this.regex = regex;
+        this.pattern = Pattern.compile(regex);
+        this.patternWithoutTitle = regexWithoutTitle != null ? Pattern.compile(regexWithoutTitle) : null;
+        this.identifierGroup = identifierGroup;
+        this.titleGroup = titleGroup;
     }
 }
@@ -0,0 +1,85 @@
+package com.code4ro.legalconsultation.service.impl.pdf.parser;
+
+import java.util.Arrays;
+
+/**
+ * The lines of a document together with the start token of each of them, as produced by {@link DocumentLexer}.
+ * Token data is kept in arrays indexed by line number so that the parsers never have to match a line again.
+ */
+public class TokenStream {
+    private static final int NO_SPAN = -1;
+
+    // trimmed lines
+    private final String[] lines;
+    // start token of the untrimmed line, null for regular lines
+    private final StartToken[] tokens;
+    // the trimmed line starts no node, so it belongs to the content of the current one
+    private final boolean[] regular;
+    private final boolean[] withoutTitle;
+    // identifier start, identifier end, title start and title end in the trimmed line, NO_SPAN when missing
+    private final int[] spans;
+
+    TokenStream(final int size) {
+        this.lines = new String[size];
+        this.tokens = new StartToken[size];
+        this.regular = new boolean[size];
+        this.withoutTitle = new boolean[size];
+        this.spans = new int[size * 4];
+        Arrays.fill(spans, NO_SPAN);
+    }
+
+    void set(final int index, final String line, final StartToken token, final boolean regular, final boolean withoutTitle) {
+        this.lines[index] = line;
+        this.tokens[index] = token;
+        this.regular[index] = regular;
+        this.withoutTitle[index] = withoutTitle;
+    }
+
+    void setSpans(final int index, final int identifierStart, final int identifierEnd,
+                  final int titleStart, final int titleEnd) {
+        final int offset = index * 4;
+        spans[offset] = identifierStart;
+        spans[offset + 1] = identifierEnd;
+        spans[offset + 2] = titleStart;
+        spans[offset + 3] = titleEnd;
+    }
+
+    public int size() {
+        return lines.length;
+    }
+
+    public String getLine(final int index) {
+        return lines[index];
+    }
+
+    public StartToken getToken(final int index) {
+        return tokens[index];
+    }
+
+    public boolean isRegular(final int index) {
+        return regular[index];
+    }
+
+    public boolean isWithoutTitle(final int index) {
+        return withoutTitle[index];
+    }
+
+    /**
+     * identifier and title can only be read from lines whose trimmed text still matches their start token
+     */
+    public boolean hasSpans(final int index) {
+        return tokens[index] != null && !regular[index];
+    }
+
+    public String getIdentifier(final int index) {
+        return substring(index, spans[index * 4], spans[index * 4 + 1]);
+    }
+
+    public String getTitle(final int index) {
+        return substring(index, spans[index * 4 + 2], spans[index * 4 + 3]);
+    }
+
+    private String substring(final int index, final int start, final int end) {
+        return start == NO_SPAN ? null : lines[index].substring(start, end);
+    }
+}
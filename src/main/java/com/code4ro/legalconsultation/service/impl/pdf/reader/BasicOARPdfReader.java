@@ -1,13 +1,21 @@
 package com.code4ro.legalconsultation.service.impl.pdf.reader;
 
-import com.code4ro.legalconsultation.service.impl.pdf.BoldAreasRepository;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 @Component
 public class BasicOARPdfReader implements PDFReader {
@@ -25,53 +33,159 @@ public class BasicOARPdfReader implements PDFReader {
     private final Rectangle2D firstPageRegion = new Rectangle2D.Double(FIRST_PAGE_REGION_X_POSITION, FIRST_PAGE_REGION_Y_POSITION, FIRST_PAGE_REGION_WIDTH, FIRST_PAGE_REGION_HEIGHT);
     private final Rectangle2D regularPageRegion = new Rectangle2D.Double(REGULAR_PAGE_REGION_X_POSITION, REGULAR_PAGE_REGION_Y_POSITION, REGULAR_PAGE_REGION_WIDTH, REGULAR_PAGE_REGION_HEIGHT);
 
-    private final BoldAreasRepository boldAreasRepository;
-    private final PDFBoldTextStripperByArea boldTextStripperByArea;
+    private final PDFBoldTextStripperPool stripperPool;
+    private final int pagesPerChunk;
+    private final ForkJoinPool extractionPool;
 
     @Autowired
-    public BasicOARPdfReader(final BoldAreasRepository boldAreasRepository,
-                             final PDFBoldTextStripperByArea boldTextStripperByArea) {
-        this.boldAreasRepository = boldAreasRepository;
-        this.boldTextStripperByArea = boldTextStripperByArea;
+    public BasicOARPdfReader(final PDFBoldTextStripperPool stripperPool,
+                             @Value("${app.pdf.pagesPerChunk}") final int pagesPerChunk,
+                             @Qualifier("pdfExtractionPool") final ForkJoinPool extractionPool) {
+        this.stripperPool = stripperPool;
+        this.pagesPerChunk = pagesPerChunk;
+        this.extractionPool = extractionPool;
     }
 
-    public String getContent(PDDocument document) throws IOException {
-        final String result = getContentAsString(document, boldTextStripperByArea);
-        boldAreasRepository.setBoldAreas(boldTextStripperByArea.getBoldAreas());
-        return result;
+    public PDFContent getContent(PDDocument document) throws IOException {
+        final PagesContent pagesContent = getContentForPages(document, 0, document.getNumberOfPages());
+        return toPDFContent(pagesContent);
     }
 
-    private String getContentAsString(final PDDocument document,
-                                      final PDFBoldTextStripperByArea stripper) throws IOException {
+    /**
+     * splits the pages in as many ranges as the extraction pool has threads, at least pagesPerChunk pages each.
+     * The first range is read from the document on the calling thread, every other one from a copy opened by
+     * the loader on a thread of the pool; the ranges are joined back in page order. Every copy parses the file
+     * and its fonts again, so there are no more copies than threads that can read them at the same time
+     */
+    @Override
+    public PDFContent getContent(final PDDocument document, final PDDocumentLoader loader) throws IOException {
         final int numberOfPages = document.getNumberOfPages();
+        final int ranges = Math.min(extractionPool.getParallelism(), numberOfPages / pagesPerChunk);
+        if (ranges <= 1) {
+            return getContent(document);
+        }
+
+        final List<ForkJoinTask<PagesContent>> copies = new ArrayList<>();
+        for (int range = 1; range < ranges; range++) {
+            final int fromPage = firstPage(range, ranges, numberOfPages);
+            final int toPage = firstPage(range + 1, ranges, numberOfPages);
+            copies.add(extractionPool.submit(() -> getContentForPages(loader, fromPage, toPage)));
+        }
+
+        try {
+            final PagesContent pagesContent = getContentForPages(document, 0, firstPage(1, ranges, numberOfPages));
+            for (final ForkJoinTask<PagesContent> copy : copies) {
+                pagesContent.append(copy.join());
+            }
+            return toPDFContent(pagesContent);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            copies.forEach(copy -> copy.cancel(false));
+        }
+    }
+
+    private static int firstPage(final int range, final int ranges, final int numberOfPages) {
+        return (int) ((long) numberOfPages * range / ranges);
+    }
+
+    private PDFContent toPDFContent(final PagesContent pagesContent) {
         final StringBuilder resultBuilder = new StringBuilder();
-        for (int i = 0; i < numberOfPages; i++) {
-            resultBuilder.append(getContentAsStringForPage(document, stripper, i));
+        final BitSet boldLines = new BitSet();
+        int lineOffset = 0;
+        for (int i = 0; i < pagesContent.pageTexts.size(); i++) {
+            final String pageText = pagesContent.pageTexts.get(i);
+            resultBuilder.append(pageText);
             resultBuilder.append("\n");
+
+            final BitSet pageBoldLines = pagesContent.pageBoldLines.get(i);
+            for (int line = pageBoldLines.nextSetBit(0); line >= 0; line = pageBoldLines.nextSetBit(line + 1)) {
+                boldLines.set(lineOffset + line);
+            }
+            lineOffset += countLineBreaks(pageText, 0, pageText.length()) + 1;
+        }
+
+        return new PDFContent(resultBuilder.toString(), boldLines);
+    }
+
+    private PagesContent getContentForPages(final PDDocumentLoader loader, final int fromPage, final int toPage) {
+        final long allocatedBefore = ThreadAllocation.current();
+        try (PDDocument copy = loader.load()) {
+            return getContentForPages(copy, fromPage, toPage);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            loader.copyRead(ThreadAllocation.since(allocatedBefore));
         }
+    }
 
-        return resultBuilder.toString();
+    private PagesContent getContentForPages(final PDDocument document,
+                                            final int fromPage,
+                                            final int toPage) throws IOException {
+        final PDFBoldTextStripperByArea stripper = stripperPool.borrow();
+        try {
+            final PagesContent pagesContent = new PagesContent();
+            for (int i = fromPage; i < toPage; i++) {
+                addContentForPage(pagesContent, document, stripper, i);
+            }
+
+            return pagesContent;
+        } finally {
+            stripperPool.release(stripper);
+        }
     }
 
-    private String getContentAsStringForPage(final PDDocument document,
-                                             final PDFBoldTextStripperByArea stripper,
-                                             final int pageNumber) throws IOException {
+    private void addContentForPage(final PagesContent pagesContent,
+                                   final PDDocument document,
+                                   final PDFBoldTextStripperByArea stripper,
+                                   final int pageNumber) throws IOException {
         final PDPage page = document.getPage(pageNumber);
         if (pageNumber == 0) {
             stripper.addRegion(FIRST_PAGE_REGION_NAME, firstPageRegion);
             stripper.extractRegions(page);
-            final String result = getContentAsStringForRegion(stripper, FIRST_PAGE_REGION_NAME);
+            addContentForRegion(pagesContent, stripper, FIRST_PAGE_REGION_NAME);
             stripper.removeRegion(FIRST_PAGE_REGION_NAME);
-            return result;
+            return;
         }
 
         stripper.addRegion(REGULAR_PAGE_REGION_NAME, regularPageRegion);
         stripper.extractRegions(page);
-        return getContentAsStringForRegion(stripper, REGULAR_PAGE_REGION_NAME);
+        addContentForRegion(pagesContent, stripper, REGULAR_PAGE_REGION_NAME);
     }
 
-    private String getContentAsStringForRegion(final PDFBoldTextStripperByArea stripper, final String regionName) {
+    private void addContentForRegion(final PagesContent pagesContent,
+                                     final PDFBoldTextStripperByArea stripper,
+                                     final String regionName) {
         final String textForRegion = stripper.getTextForRegion(regionName);
-        return textForRegion.trim();
+        final String trimmedText = textForRegion.trim();
+        // trimming may drop whole blank lines from the start of the region, the bold lines move up with the text
+        final int firstLine = countLineBreaks(textForRegion, 0, textForRegion.indexOf(trimmedText));
+        final int lineCount = countLineBreaks(trimmedText, 0, trimmedText.length()) + 1;
+        final BitSet boldLines = stripper.getBoldLinesForRegion(regionName).get(firstLine, firstLine + lineCount);
+
+        pagesContent.pageTexts.add(trimmedText);
+        pagesContent.pageBoldLines.add(boldLines);
+    }
+
+    private static int countLineBreaks(final String text, final int from, final int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static class PagesContent {
+        private final List<String> pageTexts = new ArrayList<>();
+        private final List<BitSet> pageBoldLines = new ArrayList<>();
+
+        private PagesContent append(final PagesContent next) {
+            pageTexts.addAll(next.pageTexts);
+            pageBoldLines.addAll(next.pageBoldLines);
+            return this;
+        }
     }
 }
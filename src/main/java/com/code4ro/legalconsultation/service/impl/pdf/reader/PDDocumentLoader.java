@@ -0,0 +1,21 @@
+package com.code4ro.legalconsultation.service.impl.pdf.reader;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+
+/**
+ * Opens a fresh, independent copy of the document being read. PDDocument is not thread safe,
+ * so every thread extracting pages in parallel works on its own copy.
+ */
+@FunctionalInterface
+public interface PDDocumentLoader {
+    PDDocument load() throws IOException;
+
+    /**
+     * told, on the thread that read a copy, the heap it allocated loading the copy and reading its pages;
+     * {@link ThreadAllocation#UNSUPPORTED} when the JVM does not count it
+     */
+    default void copyRead(final long allocatedBytes) {
+    }
+}
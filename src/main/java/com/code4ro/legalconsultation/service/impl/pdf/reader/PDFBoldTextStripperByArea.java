@@ -1,31 +1,30 @@
 package com.code4ro.legalconsultation.service.impl.pdf.reader;
 
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.pdfbox.text.TextPosition;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
 
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.*;
 
-@Component
+/**
+ * Stateful stripper, an instance must only be used by one document at a time.
+ * Instances are handed out by {@link PDFBoldTextStripperPool}.
+ */
 public class PDFBoldTextStripperByArea extends PDFTextStripper {
     private final List<String> regions = new ArrayList<>();
     private final Map<String, Rectangle2D> regionArea = new HashMap<>();
     private final Map<String, ArrayList<List<TextPosition>>> regionCharacterList = new HashMap<>();
     private final Map<String, StringWriter> regionText = new HashMap<>();
-    private final List<String> boldAreas = new ArrayList<>();
-    private final BoldTextSelectionParser boldTextSelectionParser;
+    private final Map<String, LineWeights> regionLineWeights = new HashMap<>();
+    // fonts are shared by all the glyphs written with them, so each one is only checked once per document
+    private final Map<PDFont, FontWeight> fontWeights = new IdentityHashMap<>();
+    private LineWeights currentLineWeights;
 
-    private boolean wasBoldCharacter = false;
-    private StringBuilder currentBoldAreaBuilder = new StringBuilder();
-
-    @Autowired
-    public PDFBoldTextStripperByArea(final BoldTextSelectionParser boldTextSelectionParser) throws IOException {
-        this.boldTextSelectionParser = boldTextSelectionParser;
+    public PDFBoldTextStripperByArea() throws IOException {
         super.setShouldSeparateByBeads(false);
     }
 
@@ -33,6 +32,19 @@ public class PDFBoldTextStripperByArea extends PDFTextStripper {
     public final void setShouldSeparateByBeads(boolean aShouldSeparateByBeads) {
     }
 
+    /**
+     * clears everything collected from the previous document so the instance can be reused
+     */
+    public void reset() {
+        regions.clear();
+        regionArea.clear();
+        regionCharacterList.clear();
+        regionText.clear();
+        regionLineWeights.clear();
+        fontWeights.clear();
+        currentLineWeights = null;
+    }
+
     public void addRegion(String regionName, Rectangle2D rect) {
         regions.add(regionName);
         regionArea.put(regionName, rect);
@@ -52,6 +64,13 @@ public class PDFBoldTextStripperByArea extends PDFTextStripper {
         return text.toString();
     }
 
+    /**
+     * the lines of the region text that only contain bold characters, by their index in the text
+     */
+    public BitSet getBoldLinesForRegion(String regionName) {
+        return regionLineWeights.get(regionName).getBoldLines();
+    }
+
     public void extractRegions(PDPage page) throws IOException {
         for (String region : regions) {
             setStartPage(getCurrentPageNo());
@@ -62,7 +81,9 @@ public class PDFBoldTextStripperByArea extends PDFTextStripper {
             ArrayList<List<TextPosition>> regionCharactersByArticle = new ArrayList<>();
             regionCharactersByArticle.add(new ArrayList<>());
             regionCharacterList.put(regionName, regionCharactersByArticle);
-            regionText.put(regionName, new StringWriter());
+            final StringWriter text = new StringWriter();
+            regionText.put(regionName, text);
+            regionLineWeights.put(regionName, new LineWeights(text.getBuffer()));
         }
 
         if (page.hasContents()) {
@@ -76,41 +97,83 @@ public class PDFBoldTextStripperByArea extends PDFTextStripper {
             Rectangle2D rect = regionArea.get(region);
             if (rect.contains(text.getX(), text.getY())) {
                 charactersByArticle = regionCharacterList.get(region);
-                processForBold(text);
                 super.processTextPosition(text);
             }
         }
     }
 
-    private void processForBold(final TextPosition text) {
-        if (text.getFont().getFontDescriptor() != null) {
-            if (text.getFont().getName().contains("Bold") && wasBoldCharacter) {
-                currentBoldAreaBuilder.append(text.toString());
-                wasBoldCharacter = true;
-            } else if (text.getFont().getName().contains("Bold") && !wasBoldCharacter) {
-                currentBoldAreaBuilder = new StringBuilder();
-                currentBoldAreaBuilder.append(text.toString());
-                wasBoldCharacter = true;
-            } else {
-                if (currentBoldAreaBuilder.length() != 0 && wasBoldCharacter) {
-                    final Set<String> breakdown = boldTextSelectionParser.handle(currentBoldAreaBuilder.toString().trim());
-                    boldAreas.addAll(breakdown);
-                }
-                wasBoldCharacter = false;
-            }
-        }
-    }
-
     @Override
     protected void writePage() throws IOException {
         for (String region : regionArea.keySet()) {
             charactersByArticle = regionCharacterList.get(region);
             output = regionText.get(region);
+            currentLineWeights = regionLineWeights.get(region);
             super.writePage();
         }
     }
 
-    public List<String> getBoldAreas() {
-        return boldAreas;
+    @Override
+    protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+        currentLineWeights.moveToEnd();
+        for (TextPosition textPosition : textPositions) {
+            currentLineWeights.add(getFontWeight(textPosition.getFont()));
+        }
+        super.writeString(text, textPositions);
+    }
+
+    private FontWeight getFontWeight(final PDFont font) {
+        return fontWeights.computeIfAbsent(font, key -> {
+            if (key.getFontDescriptor() == null) {
+                return FontWeight.UNKNOWN;
+            }
+
+            return key.getName().contains("Bold") ? FontWeight.BOLD : FontWeight.REGULAR;
+        });
+    }
+
+    private enum FontWeight {
+        BOLD,
+        REGULAR,
+        // fonts without a descriptor (the standard 14 ones) neither start nor end a bold line
+        UNKNOWN
+    }
+
+    /**
+     * Weights of the characters written on each line of a region text, the line being found
+     * by counting the line breaks written so far.
+     */
+    private static class LineWeights {
+        private final StringBuffer text;
+        private final BitSet boldLines = new BitSet();
+        private final BitSet regularLines = new BitSet();
+        private int scannedLength;
+        private int currentLine;
+
+        private LineWeights(final StringBuffer text) {
+            this.text = text;
+        }
+
+        private void moveToEnd() {
+            final int length = text.length();
+            for (; scannedLength < length; scannedLength++) {
+                if (text.charAt(scannedLength) == '\n') {
+                    currentLine++;
+                }
+            }
+        }
+
+        private void add(final FontWeight fontWeight) {
+            if (fontWeight == FontWeight.BOLD) {
+                boldLines.set(currentLine);
+            } else if (fontWeight == FontWeight.REGULAR) {
+                regularLines.set(currentLine);
+            }
+        }
+
+        private BitSet getBoldLines() {
+            final BitSet result = (BitSet) boldLines.clone();
+            result.andNot(regularLines);
+            return result;
+        }
     }
 }
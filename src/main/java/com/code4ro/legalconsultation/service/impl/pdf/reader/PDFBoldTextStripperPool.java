@@ -0,0 +1,42 @@
+package com.code4ro.legalconsultation.service.impl.pdf.reader;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out one stripper per document being read, so several PDFs can be extracted in parallel.
+ * Released strippers are kept for reuse, up to one per available processor.
+ */
+@Component
+public class PDFBoldTextStripperPool {
+    private final int maxIdle;
+    private final Deque<PDFBoldTextStripperByArea> idleStrippers = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    public PDFBoldTextStripperPool() {
+        this.maxIdle = Runtime.getRuntime().availableProcessors();
+    }
+
+    public PDFBoldTextStripperByArea borrow() throws IOException {
+        final PDFBoldTextStripperByArea stripper = idleStrippers.pollFirst();
+        if (stripper == null) {
+            return new PDFBoldTextStripperByArea();
+        }
+
+        idleCount.decrementAndGet();
+        return stripper;
+    }
+
+    public void release(final PDFBoldTextStripperByArea stripper) {
+        stripper.reset();
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idleStrippers.offerFirst(stripper);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
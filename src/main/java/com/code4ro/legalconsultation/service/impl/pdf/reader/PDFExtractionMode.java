@@ -0,0 +1,6 @@
+package com.code4ro.legalconsultation.service.impl.pdf.reader;
+
+public enum PDFExtractionMode {
+    SEQUENTIAL,
+    PARALLEL
+}
@@ -1,9 +1,18 @@
 package com.code4ro.legalconsultation.service.impl.pdf.reader;
 
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
 import org.apache.pdfbox.pdmodel.PDDocument;
 
 import java.io.IOException;
 
 public interface PDFReader {
-    String getContent(PDDocument document) throws IOException;
+    PDFContent getContent(PDDocument document) throws IOException;
+
+    /**
+     * reads the document splitting the pages between several threads, each working on a copy opened by the loader;
+     * readers that cannot split their work read the document sequentially
+     */
+    default PDFContent getContent(PDDocument document, PDDocumentLoader loader) throws IOException {
+        return getContent(document);
+    }
 }
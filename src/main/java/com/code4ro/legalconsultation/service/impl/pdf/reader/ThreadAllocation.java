@@ -0,0 +1,56 @@
+package com.code4ro.legalconsultation.service.impl.pdf.reader;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Heap allocated by the current thread, as counted by HotSpot. The counter is only part of the
+ * com.sun.management extension of the thread bean, so it is looked up once and JVMs without it read -1.
+ */
+public final class ThreadAllocation {
+    public static final long UNSUPPORTED = -1;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Method ALLOCATED_BYTES = allocatedBytesMethod();
+
+    private ThreadAllocation() {
+    }
+
+    /**
+     * bytes allocated by the current thread since it started, garbage collected since included
+     */
+    public static long current() {
+        if (ALLOCATED_BYTES == null) {
+            return UNSUPPORTED;
+        }
+
+        try {
+            return (long) ALLOCATED_BYTES.invoke(THREADS, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException e) {
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * bytes allocated by the current thread since the given value of {@link #current()}
+     */
+    public static long since(final long allocatedBefore) {
+        final long allocated = current();
+        return allocated == UNSUPPORTED || allocatedBefore == UNSUPPORTED ? UNSUPPORTED : allocated - allocatedBefore;
+    }
+
+    private static Method allocatedBytesMethod() {
+        try {
+            final Class<?> extension = Class.forName("com.sun.management.ThreadMXBean");
+            if (!extension.isInstance(THREADS)
+                    || !(boolean) extension.getMethod("isThreadAllocatedMemorySupported").invoke(THREADS)
+                    || !(boolean) extension.getMethod("isThreadAllocatedMemoryEnabled").invoke(THREADS)) {
+                return null;
+            }
+            return extension.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
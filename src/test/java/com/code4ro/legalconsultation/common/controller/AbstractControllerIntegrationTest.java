@@ -5,8 +5,10 @@ import com.code4ro.legalconsultation.service.impl.ApplicationUserService;
 import com.code4ro.legalconsultation.util.RandomObjectFiller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -14,7 +16,9 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -38,6 +42,14 @@ public abstract class AbstractControllerIntegrationTest {
     @MockBean
     protected JavaMailSender mailSender;
 
+    @Value("${storage.filesystem.directory}")
+    private String storeDirectory;
+
+    // every test gets a new context, which creates the directory again
+    @After
+    public void deleteStoredFiles() {
+        FileSystemUtils.deleteRecursively(new File(storeDirectory));
+    }
 
     protected static String endpoint(Object ...args) {
         final List<String> stringArgs = Arrays.stream(args)
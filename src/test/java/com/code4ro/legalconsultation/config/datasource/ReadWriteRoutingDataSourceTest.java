@@ -0,0 +1,103 @@
+package com.code4ro.legalconsultation.config.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReadWriteRoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @After
+    public void after() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void readOnlyTransactionsUseTheReplica() {
+        createRoutingDataSource(0);
+
+        assertThat(readDatabaseName(true)).isEqualTo("replica");
+        assertThat(readDatabaseName(false)).isEqualTo("primary");
+        assertThat(readDatabaseName(true)).isEqualTo("replica");
+        assertThat(meterRegistry.get("datasource.routing.connections").tag("pool", "replica").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void usersReadTheirOwnWritesFromThePrimary() {
+        createRoutingDataSource(60_000);
+        authenticate("writer");
+        readDatabaseName(false);
+
+        assertThat(readDatabaseName(true)).isEqualTo("primary");
+
+        authenticate("reader");
+        assertThat(readDatabaseName(true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void rolledBackTransactionsDoNotCountAsWrites() {
+        createRoutingDataSource(60_000);
+        authenticate("writer");
+        transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return jdbcTemplate.queryForObject("SELECT name FROM database_name", String.class);
+        });
+
+        assertThat(readDatabaseName(true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void writesOlderThanTheLagAreForgottenOnTheNextWrite() throws InterruptedException {
+        createRoutingDataSource(50);
+        authenticate("firstWriter");
+        readDatabaseName(false);
+        Thread.sleep(100);
+
+        authenticate("secondWriter");
+        readDatabaseName(false);
+
+        assertThat(dataSource.countRecentWriters()).isEqualTo(1);
+    }
+
+    private void createRoutingDataSource(final long maxLagMillis) {
+        dataSource = new ReadWriteRoutingDataSource(
+                createDatabase("primary"), createDatabase("replica"), maxLagMillis, meterRegistry);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    private DataSource createDatabase(final String name) {
+        final DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        final JdbcTemplate database = new JdbcTemplate(dataSource);
+        database.execute("CREATE TABLE database_name (name VARCHAR(16))");
+        database.update("INSERT INTO database_name VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String readDatabaseName(final boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT name FROM database_name", String.class));
+    }
+
+    private void authenticate(final String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null));
+    }
+}
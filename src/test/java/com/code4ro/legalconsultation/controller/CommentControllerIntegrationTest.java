@@ -3,18 +3,35 @@ package com.code4ro.legalconsultation.controller;
 import com.code4ro.legalconsultation.common.controller.AbstractControllerIntegrationTest;
 import com.code4ro.legalconsultation.model.dto.CommentDto;
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.TimeOrderedUuidGenerator;
 import com.code4ro.legalconsultation.repository.CommentRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeRepository;
 import com.code4ro.legalconsultation.service.api.CommentService;
+import com.code4ro.legalconsultation.service.api.DocumentNodeService;
 import com.code4ro.legalconsultation.util.CommentFactory;
 import com.code4ro.legalconsultation.util.DocumentNodeFactory;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -28,6 +45,12 @@ public class CommentControllerIntegrationTest extends AbstractControllerIntegrat
     @Autowired
     private CommentService commentService;
     @Autowired
+    private DocumentNodeService documentNodeService;
+    @Autowired
+    private DocumentNodeRepository documentNodeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
     private CommentFactory commentFactory;
     @Autowired
     private DocumentNodeFactory documentNodeFactory;
@@ -52,6 +75,40 @@ public class CommentControllerIntegrationTest extends AbstractControllerIntegrat
                 .andExpect(status().isOk());
 
         assertThat(commentRepository.count()).isEqualTo(1);
+        assertThat(documentNodeRepository.findById(node.getId()).get().getCommentCount()).isEqualTo(1);
+    }
+
+    @Test
+    @WithMockUser
+    public void createConcurrentlyOnTheSameNode() throws Exception {
+        final DocumentNode node = documentNodeFactory.save();
+        final int comments = 20;
+        // the executor hands the mock user of the test over to its threads
+        final ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(4));
+        try {
+            final List<Future<CommentDto>> results = new ArrayList<>();
+            for (int i = 0; i < comments; i++) {
+                results.add(executor.submit(() -> commentService.create(node.getId(), commentFactory.create())));
+            }
+            for (final Future<CommentDto> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(documentNodeRepository.findById(node.getId()).get().getCommentCount()).isEqualTo(comments);
+    }
+
+    @Test
+    @WithMockUser
+    public void reconcileCommentCounts() {
+        final DocumentNode node = documentNodeFactory.save();
+        commentFactory.save(node.getId());
+        jdbcTemplate.update("UPDATE document_nodes SET comment_count = 5 WHERE id = ?", TimeOrderedUuidGenerator.toBytes(node.getId()));
+
+        assertThat(documentNodeService.reconcileCommentCounts()).isEqualTo(1);
+        assertThat(documentNodeRepository.findById(node.getId()).get().getCommentCount()).isEqualTo(1);
     }
 
     @Test
@@ -87,6 +144,7 @@ public class CommentControllerIntegrationTest extends AbstractControllerIntegrat
                 .andExpect(status().isOk());
 
         assertThat(commentRepository.count()).isEqualTo(0);
+        assertThat(documentNodeRepository.findById(node.getId()).get().getCommentCount()).isEqualTo(0);
     }
 
     @Test
@@ -108,4 +166,46 @@ public class CommentControllerIntegrationTest extends AbstractControllerIntegrat
                 .andExpect(jsonPath("$.content.size()").value(1))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @WithMockUser
+    public void findAllByCursor() throws Exception {
+        final DocumentNode node = documentNodeFactory.save();
+        final Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(commentService.create(node.getId(), commentFactory.create()).getId());
+        }
+
+        final MvcResult firstPage = mvc.perform(get(endpoint("/api/documentnodes/", node.getId(), "/comments/cursor?count=true"))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.size()").value(2))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(status().isOk())
+                .andReturn();
+        final String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.next");
+        final MvcResult lastPage = mvc.perform(get(endpoint("/api/documentnodes/", node.getId(), "/comments/cursor"))
+                .param("cursor", cursor)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.size()").value(1))
+                .andExpect(jsonPath("$.next").doesNotExist())
+                .andExpect(status().isOk())
+                .andReturn();
+
+        final List<String> pagedIds = new ArrayList<>();
+        pagedIds.addAll(JsonPath.read(firstPage.getResponse().getContentAsString(), "$.content[*].id"));
+        pagedIds.addAll(JsonPath.read(lastPage.getResponse().getContentAsString(), "$.content[*].id"));
+        assertThat(pagedIds).containsExactlyInAnyOrderElementsOf(
+                ids.stream().map(UUID::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    @WithMockUser
+    public void findAllByInvalidCursor() throws Exception {
+        final DocumentNode node = documentNodeFactory.save();
+
+        mvc.perform(get(endpoint("/api/documentnodes/", node.getId(), "/comments/cursor"))
+                .param("cursor", "not a cursor")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,69 @@
+package com.code4ro.legalconsultation.controller;
+
+import com.code4ro.legalconsultation.common.controller.AbstractControllerIntegrationTest;
+import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.service.api.DocumentService;
+import com.code4ro.legalconsultation.util.PdfFileFactory;
+import com.code4ro.legalconsultation.util.RandomObjectFiller;
+import com.code4ro.legalconsultation.util.SqlStatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "app.document.consolidatedRenderMode=STREAMING")
+public class DocumentConsolidatedStreamingIntegrationTest extends AbstractControllerIntegrationTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Test
+    @WithMockUser
+    public void streamedDocumentHasTheShapeOfTheTree() throws Exception {
+        final UUID documentId = uploadDocument();
+
+        SqlStatementCounter.reset();
+        final String streamed = mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated"))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // only the count goes through hibernate, the nodes themselves are read with one jdbc statement
+        assertThat(SqlStatementCounter.countSelectsFrom("document_nodes")).isEqualTo(1);
+        final JsonNode tree = objectMapper.readTree(
+                objectMapper.writeValueAsString(documentService.fetchOneConsolidated(documentId)));
+        assertThat(objectMapper.readTree(streamed)).isEqualTo(tree);
+        assertThat(tree.get("documentNode").get("children")).isNotEmpty();
+    }
+
+    @Test
+    @WithMockUser
+    public void streamedDocumentNotFound() throws Exception {
+        mvc.perform(get(endpoint("/api/document/", UUID.randomUUID(), "/consolidated")))
+                .andExpect(status().isNotFound());
+    }
+
+    private UUID uploadDocument() throws Exception {
+        final DocumentViewDto randomView = RandomObjectFiller.createAndFill(DocumentViewDto.class);
+        final String response = mvc.perform(multipart("/api/document/")
+                .file(PdfFileFactory.getAsMultipart(getClass().getClassLoader(), "sample_legal_document.pdf"))
+                .param("title", randomView.getTitle())
+                .param("number", randomView.getDocumentNumber().toString())
+                .param("documentInitializer", randomView.getDocumentInitializer())
+                .param("type", randomView.getDocumentType().toString())
+                .param("creationDate", "09/09/2018")
+                .param("receiveDate", "10/09/2018"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, UUID.class);
+    }
+}
@@ -1,35 +1,54 @@
 package com.code4ro.legalconsultation.controller;
 
 import com.code4ro.legalconsultation.common.controller.AbstractControllerIntegrationTest;
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionStage;
 import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.persistence.Comment;
 import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentType;
+import com.code4ro.legalconsultation.model.persistence.TimeOrderedUuidGenerator;
+import com.code4ro.legalconsultation.repository.CommentRepository;
 import com.code4ro.legalconsultation.repository.DocumentConsolidatedRepository;
 import com.code4ro.legalconsultation.repository.DocumentMetadataRepository;
 import com.code4ro.legalconsultation.repository.DocumentNodeRepository;
 import com.code4ro.legalconsultation.service.api.CommentService;
+import com.code4ro.legalconsultation.service.impl.CommentCountReconciliationJob;
+import com.code4ro.legalconsultation.service.impl.DocumentOutlineCache;
 import com.code4ro.legalconsultation.util.CommentFactory;
 import com.code4ro.legalconsultation.util.DocumentNodeFactory;
 import com.code4ro.legalconsultation.util.PdfFileFactory;
 import com.code4ro.legalconsultation.util.RandomObjectFiller;
+import com.code4ro.legalconsultation.util.SqlStatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.Cache;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.FileSystemUtils;
 
-import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,11 +64,23 @@ public class DocumentControllerIntegrationTest extends AbstractControllerIntegra
     @Autowired
     private DocumentNodeRepository documentNodeRepository;
     @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
     private DocumentNodeFactory documentNodeFactory;
     @Autowired
     private CommentService commentService;
     @Autowired
     private CommentFactory commentFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private Cache secondLevelCache;
+    @Autowired
+    private DocumentOutlineCache documentOutlineCache;
+    @Autowired
+    private CommentCountReconciliationJob commentCountReconciliationJob;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @Test
     @WithMockUser
@@ -80,6 +111,61 @@ public class DocumentControllerIntegrationTest extends AbstractControllerIntegra
         assertThatDocumentNodeTreeIsGeneratedCorrectly(document.getDocumentNode());
     }
 
+    @Test
+    @WithMockUser
+    public void saveDocumentAsync() throws Exception {
+        final DocumentViewDto randomView = RandomObjectFiller.createAndFill(DocumentViewDto.class);
+
+        final MockMultipartFile randomFile = PdfFileFactory.getAsMultipart(getClass().getClassLoader());
+        final String response = mvc.perform(multipart("/api/document/async")
+                .file(randomFile)
+                .param("title", randomView.getTitle())
+                .param("number", randomView.getDocumentNumber().toString())
+                .param("documentInitializer", randomView.getDocumentInitializer())
+                .param("type", randomView.getDocumentType().toString())
+                .param("creationDate", "09/09/2018")
+                .param("receiveDate", "10/09/2018"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        final String jobId = JsonPath.read(response, "$.id");
+
+        final String job = awaitIngestionJob(jobId);
+        assertThat(JsonPath.<String>read(job, "$.stage")).isEqualTo(DocumentIngestionStage.COMPLETED.name());
+        assertThat(JsonPath.<Integer>read(job, "$.progress")).isEqualTo(100);
+
+        assertThat(documentMetadataRepository.count()).isEqualTo(1);
+        assertThat(documentConsolidatedRepository.count()).isEqualTo(1);
+        assertThat(documentNodeRepository.count()).isEqualTo(14);
+        assertThat(JsonPath.<String>read(job, "$.documentId"))
+                .isEqualTo(documentConsolidatedRepository.findAll().get(0).getId().toString());
+
+        final String soredFilePath = documentMetadataRepository.findAll().get(0).getFilePath();
+        assertThatDocumentIsStored(soredFilePath);
+    }
+
+    @Test
+    @WithMockUser
+    public void getIngestionJobNotFound() throws Exception {
+        mvc.perform(get(endpoint("/api/document/jobs/", UUID.randomUUID())))
+                .andExpect(status().isNotFound());
+    }
+
+    private String awaitIngestionJob(final String jobId) throws Exception {
+        for (int attempt = 0; attempt < 300; attempt++) {
+            final String job = mvc.perform(get(endpoint("/api/document/jobs/", jobId))
+                    .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            final String stage = JsonPath.read(job, "$.stage");
+            if (DocumentIngestionStage.COMPLETED.name().equals(stage) || DocumentIngestionStage.FAILED.name().equals(stage)) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Ingestion job " + jobId + " did not finish in time");
+    }
+
     private void assertThatDocumentNodeTreeIsGeneratedCorrectly(final DocumentNode document) {
         final DocumentNode expectedDocument = documentNodeFactory.createDocument(null, "Document title  on multiple lines", "Sample document introduction that can be on one line or on multiplelines");
         assertThat(document.getChildren()).hasSize(2);
@@ -161,10 +247,6 @@ public class DocumentControllerIntegrationTest extends AbstractControllerIntegra
     private void assertThatDocumentIsStored(String soredFilePath) {
         assertThat(soredFilePath).contains(customStoreDirPath);
         assertThat(Files.exists(Paths.get(soredFilePath))).isTrue();
-        // remove the store directory
-        final File storeDir = new File(customStoreDirPath);
-        FileSystemUtils.deleteRecursively(storeDir);
-        storeDir.deleteOnExit();
     }
 
     @Test
@@ -204,22 +286,353 @@ public class DocumentControllerIntegrationTest extends AbstractControllerIntegra
                 .andReturn();
     }
 
+    @Test
+    @WithMockUser
+    public void getConsolidatedDocumentReadsAllNodesAtOnce() throws Exception {
+        final UUID smallDocumentId = uploadDocument("sample_legal_document.pdf");
+        final UUID largeDocumentId = uploadDocument("rof_2018_pdf_1536138173.pdf");
+
+        getConsolidated(smallDocumentId);
+        final long smallDocumentNodeQueries = SqlStatementCounter.countSelectsFrom("document_nodes");
+        final long smallDocumentQueries = SqlStatementCounter.count();
+        getConsolidated(largeDocumentId);
+        final long largeDocumentNodeQueries = SqlStatementCounter.countSelectsFrom("document_nodes");
+        final long largeDocumentQueries = SqlStatementCounter.count();
+
+        assertThat(smallDocumentNodeQueries).isEqualTo(1);
+        assertThat(largeDocumentNodeQueries).isEqualTo(smallDocumentNodeQueries);
+        assertThat(largeDocumentQueries).isEqualTo(smallDocumentQueries);
+        assertThat(SqlStatementCounter.countSelectsFrom("comments")).isZero();
+    }
+
+    @Test
+    @WithMockUser
+    public void getConsolidatedDocumentFromTheSecondLevelCache() throws Exception {
+        persistMockedUser();
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final UUID rootId = documentConsolidatedRepository.findById(documentId).get().getDocumentNode().getId();
+        getConsolidated(documentId);
+        commentService.create(rootId, commentFactory.create());
+
+        SqlStatementCounter.reset();
+        mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated"))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documentNode.children[0].children").isNotEmpty())
+                .andExpect(jsonPath("$.documentNode.numberOfComments").value(1));
+
+        assertThat(SqlStatementCounter.countSelectsFrom("document_nodes")).isZero();
+        assertThat(meterRegistry.get("hibernate.second.level.cache.region.requests")
+                .tags("region", DocumentNode.CACHE_REGION, "result", "hit")
+                .functionCounter().count()).isPositive();
+    }
+
+    @Test
+    @WithMockUser
+    public void updateDocumentDeletesThePreviousNodes() throws Exception {
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final UUID rootId = documentConsolidatedRepository.findById(documentId).get().getDocumentNode().getId();
+        getConsolidated(documentId);
+        assertThat(secondLevelCache.containsEntity(DocumentNode.class, rootId)).isTrue();
+
+        mvc.perform(multipart("/api/document/{id}", documentId)
+                .file(PdfFileFactory.getAsMultipart(getClass().getClassLoader(), "sample_legal_document.pdf"))
+                .param("id", documentId.toString())
+                .param("title", "title")
+                .param("number", "1")
+                .param("documentInitializer", "initializer")
+                .param("type", DocumentType.Lege.toString())
+                .param("creationDate", "09/09/2018")
+                .param("receiveDate", "10/09/2018")
+                .with(request -> {
+                    request.setMethod("PUT");
+                    return request;
+                }))
+                .andExpect(status().isOk());
+
+        assertThat(secondLevelCache.containsEntity(DocumentNode.class, rootId)).isFalse();
+        assertThat(secondLevelCache.containsCollection(DocumentNode.class.getName() + ".children", rootId)).isFalse();
+        assertThat(documentNodeRepository.findById(rootId)).isEmpty();
+        // the same file again, so the stored one is kept
+        assertThatDocumentIsStored(documentConsolidatedRepository.findById(documentId).get().getDocumentMetadata().getFilePath());
+    }
+
+    @Test
+    @WithMockUser
+    public void getDocumentNotModifiedWithoutReadingNodes() throws Exception {
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final String metadataETag = getETag(endpoint("/api/document/", documentId));
+        final String consolidatedETag = mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        SqlStatementCounter.reset();
+        mvc.perform(get(endpoint("/api/document/", documentId))
+                .header(HttpHeaders.IF_NONE_MATCH, metadataETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, metadataETag))
+                .andExpect(content().string(""));
+        mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated"))
+                .header(HttpHeaders.IF_NONE_MATCH, consolidatedETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, consolidatedETag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().string(""));
+
+        assertThat(metadataETag).startsWith("\"").endsWith("\"");
+        assertThat(consolidatedETag).isNotEqualTo(metadataETag);
+        assertThat(SqlStatementCounter.countSelectsFrom("document_nodes")).isZero();
+    }
+
+    @Test
+    @WithMockUser
+    public void commentChangesOnlyTheETagOfTheConsolidatedDocument() throws Exception {
+        persistMockedUser();
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final UUID rootId = documentConsolidatedRepository.findById(documentId).get().getDocumentNode().getId();
+        final String metadataETag = getETag(endpoint("/api/document/", documentId));
+        final String consolidatedETag = getETag(endpoint("/api/document/", documentId, "/consolidated"));
+
+        commentService.create(rootId, commentFactory.create());
+
+        mvc.perform(get(endpoint("/api/document/", documentId))
+                .header(HttpHeaders.IF_NONE_MATCH, metadataETag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated"))
+                .header(HttpHeaders.IF_NONE_MATCH, consolidatedETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(consolidatedETag)))
+                .andExpect(jsonPath("$.documentNode.numberOfComments").value(1));
+    }
+
+    @Test
+    @WithMockUser
+    public void reconciledCommentCountChangesTheETagOfTheConsolidatedDocument() throws Exception {
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final UUID rootId = documentConsolidatedRepository.findById(documentId).get().getDocumentNode().getId();
+        final String consolidatedETag = getETag(endpoint("/api/document/", documentId, "/consolidated"));
+        jdbcTemplate.update("UPDATE document_nodes SET comment_count = 5 WHERE id = ?", TimeOrderedUuidGenerator.toBytes(rootId));
+
+        commentCountReconciliationJob.reconcile();
+
+        mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated"))
+                .header(HttpHeaders.IF_NONE_MATCH, consolidatedETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(consolidatedETag)))
+                .andExpect(jsonPath("$.documentNode.numberOfComments").value(0));
+    }
+
+    @Test
+    @WithMockUser
+    public void commentOnATreeSavedWithoutDocumentIdChangesTheETagOnceItIsFilledIn() throws Exception {
+        persistMockedUser();
+        final DocumentNode root = documentNodeFactory.create();
+        final DocumentMetadata documentMetadata = RandomObjectFiller.createAndFill(DocumentMetadata.class);
+        documentMetadata.setVersion(1);
+        // cascaded through hibernate, the way trees were saved before the nodes kept their document id
+        final UUID documentId = documentConsolidatedRepository.save(new DocumentConsolidated(documentMetadata, root)).getId();
+
+        commentCountReconciliationJob.fillDocumentIds();
+
+        final UUID childId = root.getChildren().get(0).getId();
+        final DocumentNode child = documentNodeRepository.findById(childId).get();
+        assertThat(child.getDocumentId()).isEqualTo(root.getId());
+        assertThat(child.getDocumentPosition()).isEqualTo(1);
+        final String consolidatedETag = getETag(endpoint("/api/document/", documentId, "/consolidated"));
+
+        commentService.create(childId, commentFactory.create());
+
+        mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated"))
+                .header(HttpHeaders.IF_NONE_MATCH, consolidatedETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documentNode.children[0].numberOfComments").value(1));
+    }
+
+    @Test
+    @WithMockUser
+    public void updateDocumentChangesItsETags() throws Exception {
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final String metadataETag = getETag(endpoint("/api/document/", documentId));
+        final String listingETag = getETag("/api/document/");
+
+        mvc.perform(multipart("/api/document/{id}", documentId)
+                .file(PdfFileFactory.getAsMultipart(getClass().getClassLoader(), "sample_legal_document.pdf"))
+                .param("id", documentId.toString())
+                .param("title", "title")
+                .param("number", "1")
+                .param("documentInitializer", "initializer")
+                .param("type", DocumentType.Lege.toString())
+                .param("creationDate", "09/09/2018")
+                .param("receiveDate", "10/09/2018")
+                .with(request -> {
+                    request.setMethod("PUT");
+                    return request;
+                }))
+                .andExpect(status().isOk());
+
+        mvc.perform(get(endpoint("/api/document/", documentId))
+                .header(HttpHeaders.IF_NONE_MATCH, metadataETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documentTitle").value("title"));
+        mvc.perform(get("/api/document/")
+                .header(HttpHeaders.IF_NONE_MATCH, listingETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    public void listDocumentsNotModifiedUntilADocumentIsAddedOrDeleted() throws Exception {
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final String listingETag = getETag("/api/document/");
+
+        SqlStatementCounter.reset();
+        mvc.perform(get("/api/document/")
+                .header(HttpHeaders.IF_NONE_MATCH, listingETag))
+                .andExpect(status().isNotModified());
+        // only the aggregate, the page and its count are not read
+        assertThat(SqlStatementCounter.countSelectsFrom("document_description")).isEqualTo(1);
+
+        final UUID otherDocumentId = uploadDocument("sample_legal_document.pdf");
+        final String otherListingETag = getETag("/api/document/");
+        assertThat(otherListingETag).isNotEqualTo(listingETag);
+
+        mvc.perform(delete(endpoint("/api/document/", otherDocumentId)))
+                .andExpect(status().isOk());
+        mvc.perform(get("/api/document/")
+                .header(HttpHeaders.IF_NONE_MATCH, otherListingETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(documentMetadataId(documentId)));
+    }
+
+    @Test
+    @WithMockUser
+    public void getOutlineOfAnUploadedDocumentWithoutQueries() throws Exception {
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final JsonNode consolidated = objectMapper.readTree(mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated")))
+                .andReturn().getResponse().getContentAsString());
+
+        SqlStatementCounter.reset();
+        final JsonNode outline = getOutline(documentId);
+
+        assertThat(SqlStatementCounter.count()).isZero();
+        assertSameOutline(outline, consolidated.get("documentNode"));
+    }
+
+    @Test
+    @WithMockUser
+    public void getOutlineBuildsItFromTheNodesWhenNotCached() throws Exception {
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final JsonNode builtAtUpload = getOutline(documentId);
+        documentOutlineCache.remove(documentId);
+
+        final JsonNode builtFromTheNodes = getOutline(documentId);
+
+        assertThat(builtFromTheNodes).isEqualTo(builtAtUpload);
+        assertThat(documentOutlineCache.get(documentId)).isPresent();
+    }
+
+    @Test
+    @WithMockUser
+    public void getOutlineNotFound() throws Exception {
+        mvc.perform(get(endpoint("/api/document/", UUID.randomUUID(), "/outline")))
+                .andExpect(status().isNotFound());
+    }
+
+    private JsonNode getOutline(final UUID documentId) throws Exception {
+        return objectMapper.readTree(mvc.perform(get(endpoint("/api/document/", documentId, "/outline"))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private void assertSameOutline(final JsonNode outline, final JsonNode documentNode) {
+        assertThat(outline.has("content")).isFalse();
+        assertThat(outline.get("documentNodeType")).isEqualTo(documentNode.get("documentNodeType"));
+        assertThat(outline.get("title")).isEqualTo(documentNode.get("title"));
+        assertThat(outline.get("children")).hasSameSizeAs(documentNode.get("children"));
+        for (int i = 0; i < outline.get("children").size(); i++) {
+            assertSameOutline(outline.get("children").get(i), documentNode.get("children").get(i));
+        }
+    }
+
+    private String getETag(final String url) throws Exception {
+        return mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String documentMetadataId(final UUID documentId) {
+        return documentConsolidatedRepository.findById(documentId).get().getDocumentMetadata().getId().toString();
+    }
+
+    private UUID uploadDocument(final String filename) throws Exception {
+        final DocumentViewDto randomView = RandomObjectFiller.createAndFill(DocumentViewDto.class);
+        final String response = mvc.perform(multipart("/api/document/")
+                .file(PdfFileFactory.getAsMultipart(getClass().getClassLoader(), filename))
+                .param("title", randomView.getTitle())
+                .param("number", randomView.getDocumentNumber().toString())
+                .param("documentInitializer", randomView.getDocumentInitializer())
+                .param("type", randomView.getDocumentType().toString())
+                .param("creationDate", "09/09/2018")
+                .param("receiveDate", "10/09/2018"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, UUID.class);
+    }
+
+    private void getConsolidated(final UUID documentId) throws Exception {
+        SqlStatementCounter.reset();
+        mvc.perform(get(endpoint("/api/document/", documentId, "/consolidated"))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documentNode.children[0].children").isNotEmpty())
+                .andExpect(jsonPath("$.documentNode.numberOfComments").value(0));
+    }
+
     @Test
     @WithMockUser
     @Transactional
     public void listDocuments() throws Exception {
-        DocumentConsolidated consolidated1 = saveSingleConsolidated();
-        DocumentConsolidated consolidated2 = saveSingleConsolidated();
+        final String initiator = RandomStringUtils.randomAlphabetic(10);
+        final DocumentMetadata law = saveSingleConsolidated(initiator, DocumentType.Lege).getDocumentMetadata();
+        final DocumentMetadata otherLaw = saveSingleConsolidated(initiator, DocumentType.Lege).getDocumentMetadata();
+        final DocumentMetadata decision = saveSingleConsolidated(initiator, DocumentType.HG).getDocumentMetadata();
+        saveSingleConsolidated();
+        final List<DocumentMetadata> byNumber = Arrays.asList(law, otherLaw, decision);
+        byNumber.sort(Comparator.comparing(DocumentMetadata::getDocumentNumber));
+
+        SqlStatementCounter.reset();
+        mvc.perform(get("/api/document/")
+                .param("initiator", initiator)
+                .param("sort", "documentNumber")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content.size()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(byNumber.get(0).getId().toString()))
+                .andExpect(jsonPath("$.content[1].id").value(byNumber.get(1).getId().toString()))
+                .andExpect(jsonPath("$.content[0].filePath").doesNotExist());
+        assertThat(SqlStatementCounter.countSelectsFrom("consolidated_document")).isZero();
 
         mvc.perform(get("/api/document/")
+                .param("initiator", initiator)
+                .param("type", DocumentType.HG.toString())
                 .accept(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()").value(2))
-                .andExpect(jsonPath("$[0].id").value(consolidated1.getDocumentMetadata().getId().toString()))
-                .andExpect(jsonPath("$[1].id").value(consolidated2.getDocumentMetadata().getId().toString()))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(decision.getId().toString()));
+    }
 
-        assertThat(documentMetadataRepository.count()).isEqualTo(2);
-        assertThat(documentConsolidatedRepository.count()).isEqualTo(2);
+    @Test
+    @WithMockUser
+    public void listDocumentsByAnUnsupportedProperty() throws Exception {
+        mvc.perform(get("/api/document/")
+                .param("sort", "documentTitle")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -254,6 +667,34 @@ public class DocumentControllerIntegrationTest extends AbstractControllerIntegra
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser
+    public void deleteDocumentWithoutLoadingItsNodes() throws Exception {
+        final UUID documentId = uploadDocument("sample_legal_document.pdf");
+        final DocumentConsolidated consolidated = documentConsolidatedRepository.findById(documentId).get();
+        final UUID rootId = consolidated.getDocumentNode().getId();
+        final DocumentMetadata metadata = consolidated.getDocumentMetadata();
+        final Comment comment = new Comment();
+        comment.setText("comment");
+        comment.setDocumentNode(documentNodeRepository.getOne(rootId));
+        comment.setLastEditDateTime(new Date());
+        final UUID commentId = commentRepository.save(comment).getId();
+        getConsolidated(documentId);
+
+        SqlStatementCounter.reset();
+        mvc.perform(delete(endpoint("/api/document/", documentId)))
+                .andExpect(status().isOk());
+
+        // the number and the ids of the nodes, none of the nodes themselves
+        assertThat(SqlStatementCounter.countSelectsFrom("document_nodes")).isEqualTo(2);
+        assertThat(documentNodeRepository.countByDocumentId(rootId)).isZero();
+        assertThat(commentRepository.existsById(commentId)).isFalse();
+        assertThat(documentMetadataRepository.existsById(metadata.getId())).isFalse();
+        assertThat(documentConsolidatedRepository.existsById(documentId)).isFalse();
+        assertThat(Files.exists(Paths.get(metadata.getFilePath()))).isFalse();
+        assertThat(secondLevelCache.containsEntity(DocumentNode.class, rootId)).isFalse();
+    }
+
     @Test
     @WithMockUser
     public void deleteDocumentNotFound() throws Exception {
@@ -266,7 +707,18 @@ public class DocumentControllerIntegrationTest extends AbstractControllerIntegra
     private DocumentConsolidated saveSingleConsolidated() {
         final DocumentNode documentNode = documentNodeFactory.save();
         final DocumentMetadata documentMetadata = RandomObjectFiller.createAndFill(DocumentMetadata.class);
+        // as uploaded once, a random version would overflow the sum the listing version is made of
+        documentMetadata.setVersion(1);
         DocumentConsolidated consolidated = new DocumentConsolidated(documentMetadata, documentNode);
         return documentConsolidatedRepository.save(consolidated);
     }
+
+    private DocumentConsolidated saveSingleConsolidated(final String initiator, final DocumentType type) {
+        final DocumentNode documentNode = documentNodeFactory.save();
+        final DocumentMetadata documentMetadata = RandomObjectFiller.createAndFill(DocumentMetadata.class);
+        documentMetadata.setVersion(1);
+        documentMetadata.setDocumentInitializer(initiator);
+        documentMetadata.setDocumentType(type);
+        return documentConsolidatedRepository.save(new DocumentConsolidated(documentMetadata, documentNode));
+    }
 }
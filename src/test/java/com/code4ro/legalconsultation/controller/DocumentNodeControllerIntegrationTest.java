@@ -0,0 +1,101 @@
+package com.code4ro.legalconsultation.controller;
+
+import com.code4ro.legalconsultation.common.controller.AbstractControllerIntegrationTest;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
+import com.code4ro.legalconsultation.util.SqlStatementCounter;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class DocumentNodeControllerIntegrationTest extends AbstractControllerIntegrationTest {
+
+    @Autowired
+    private DocumentNodeBatchRepository documentNodeBatchRepository;
+
+    @Test
+    @WithMockUser
+    public void getDirectChildren() throws Exception {
+        final UUID rootId = saveDocument();
+
+        SqlStatementCounter.reset();
+        mvc.perform(get(endpoint("/api/documentnodes/", rootId, "/children"))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(rootId.toString()))
+                .andExpect(jsonPath("$.hasMoreChildren", is(false)))
+                .andExpect(jsonPath("$.children", hasSize(2)))
+                .andExpect(jsonPath("$.children[0].title").value("chapter 1"))
+                .andExpect(jsonPath("$.children[0].hasMoreChildren", is(true)))
+                .andExpect(jsonPath("$.children[0].children", hasSize(0)))
+                .andExpect(jsonPath("$.children[1].hasMoreChildren", is(false)));
+
+        // the node, one level of children and the lookup of their own children
+        assertThat(SqlStatementCounter.countSelectsFrom("document_nodes")).isEqualTo(3);
+    }
+
+    @Test
+    @WithMockUser
+    public void getSubtreeDownToTheGivenDepth() throws Exception {
+        final UUID rootId = saveDocument();
+
+        mvc.perform(get(endpoint("/api/documentnodes/", rootId, "/children"))
+                .param("depth", "2")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.children[0].hasMoreChildren", is(false)))
+                .andExpect(jsonPath("$.children[0].children", hasSize(2)))
+                .andExpect(jsonPath("$.children[0].children[0].title").value("article 1"))
+                .andExpect(jsonPath("$.children[0].children[1].title").value("article 2"))
+                .andExpect(jsonPath("$.children[0].children[1].hasMoreChildren", is(false)));
+    }
+
+    @Test
+    @WithMockUser
+    public void getSubtreeTooDeep() throws Exception {
+        mvc.perform(get(endpoint("/api/documentnodes/", UUID.randomUUID(), "/children"))
+                .param("depth", "100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void getChildrenOfAMissingNode() throws Exception {
+        mvc.perform(get(endpoint("/api/documentnodes/", UUID.randomUUID(), "/children")))
+                .andExpect(status().isNotFound());
+    }
+
+    // a document with two chapters, the first one having two articles
+    private UUID saveDocument() {
+        final DocumentNode root = createNode(null, DocumentNodeType.DOCUMENT, "document");
+        final DocumentNode chapter = createNode(root, DocumentNodeType.CHAPTER, "chapter 1");
+        createNode(chapter, DocumentNodeType.ARTICLE, "article 1");
+        createNode(chapter, DocumentNodeType.ARTICLE, "article 2");
+        createNode(root, DocumentNodeType.CHAPTER, "chapter 2");
+        return documentNodeBatchRepository.insertTree(root);
+    }
+
+    private DocumentNode createNode(final DocumentNode parent, final DocumentNodeType type, final String title) {
+        final DocumentNode node = new DocumentNode();
+        node.setDocumentNodeType(type);
+        node.setTitle(title);
+        node.setChildren(new ArrayList<>());
+        if (parent != null) {
+            node.setParent(parent);
+            parent.getChildren().add(node);
+        }
+        return node;
+    }
+}
@@ -6,12 +6,14 @@ import com.code4ro.legalconsultation.model.persistence.User;
 import com.code4ro.legalconsultation.model.persistence.UserRole;
 import com.code4ro.legalconsultation.repository.UserRepository;
 import com.code4ro.legalconsultation.util.RandomObjectFiller;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import javax.mail.internet.MimeMessage;
@@ -143,6 +145,34 @@ public class UserControllerIntegrationTest extends AbstractControllerIntegration
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser
+    public void listByCursor() throws Exception {
+        final List<User> users = Arrays.asList(
+                RandomObjectFiller.createAndFill(User.class),
+                RandomObjectFiller.createAndFill(User.class),
+                RandomObjectFiller.createAndFill(User.class));
+        userRepository.saveAll(users);
+        users.sort(Comparator.comparing(User::getEmail));
+
+        final MvcResult firstPage = mvc.perform(get("/api/users/cursor?count=true")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.size()").value(2))
+                .andExpect(jsonPath("$.content[0].email").value(users.get(0).getEmail()))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(status().isOk())
+                .andReturn();
+        final String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.next");
+
+        mvc.perform(get("/api/users/cursor").param("cursor", cursor)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.size()").value(1))
+                .andExpect(jsonPath("$.content[0].email").value(users.get(2).getEmail()))
+                .andExpect(jsonPath("$.next").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(status().isOk());
+    }
+
     @Test
     @WithMockUser
     public void deleteUser() throws Exception {
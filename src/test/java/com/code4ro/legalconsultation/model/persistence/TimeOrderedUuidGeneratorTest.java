@@ -0,0 +1,37 @@
+package com.code4ro.legalconsultation.model.persistence;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    public void generateVersion7Uuids() {
+        final long before = System.currentTimeMillis();
+        final UUID uuid = TimeOrderedUuidGenerator.generate();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis());
+    }
+
+    @Test
+    public void laterUuidsSortAfterEarlierOnes() {
+        final UUID first = TimeOrderedUuidGenerator.generate();
+        // ids of the same millisecond only differ by their random bits, so the next one is taken in a later one
+        final long firstMillis = first.getMostSignificantBits() >>> 16;
+        while (System.currentTimeMillis() <= firstMillis) {
+            Thread.onSpinWait();
+        }
+        final UUID second = TimeOrderedUuidGenerator.generate();
+
+        assertThat(second.getMostSignificantBits() >>> 16).isGreaterThan(firstMillis);
+        // binary columns compare byte by byte, which is unsigned order
+        assertThat(Arrays.compareUnsigned(TimeOrderedUuidGenerator.toBytes(second),
+                TimeOrderedUuidGenerator.toBytes(first))).isPositive();
+    }
+}
@@ -1,15 +1,14 @@
 package com.code4ro.legalconsultation.service;
 
-import com.code4ro.legalconsultation.service.impl.pdf.BoldAreasRepository;
-import com.code4ro.legalconsultation.service.impl.pdf.parser.StartTokenMatcher;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
 import com.code4ro.legalconsultation.service.impl.pdf.reader.BasicOARPdfReader;
-import com.code4ro.legalconsultation.service.impl.pdf.reader.BoldTextSelectionParser;
-import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFBoldTextStripperByArea;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDDocumentLoader;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFBoldTextStripperPool;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.File;
@@ -18,6 +17,8 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
@@ -25,30 +26,34 @@ import static org.assertj.core.api.Java6Assertions.assertThat;
 public class BasicOARPdfReaderTest {
     private final ClassLoader classLoader = getClass().getClassLoader();
 
-    @Mock
-    private BoldAreasRepository boldAreasRepository;
+    private static final List<String> FILENAMES = Arrays.asList(
+            "codul_deontologic_al_oar_2011_pdf_1445359410.pdf",
+            "regulament_cadru_2018_pdf_1536138396.pdf",
+            "rof_2018_pdf_1536138173.pdf");
+
+    private static final int PAGES_PER_CHUNK = 2;
+    private static final int EXTRACTION_THREADS = 3;
+
+    private final ForkJoinPool extractionPool = new ForkJoinPool(EXTRACTION_THREADS);
     private BasicOARPdfReader pdfReader;
 
     @Before
-    public void before() throws IOException {
-        final StartTokenMatcher startTokenMatcher = new StartTokenMatcher();
-        final BoldTextSelectionParser boldTextSelectionParser = new BoldTextSelectionParser(startTokenMatcher);
-        final PDFBoldTextStripperByArea boldTextStripperByArea = new PDFBoldTextStripperByArea(boldTextSelectionParser);
-        this.pdfReader = new BasicOARPdfReader(boldAreasRepository, boldTextStripperByArea);
+    public void before() {
+        this.pdfReader = new BasicOARPdfReader(new PDFBoldTextStripperPool(), PAGES_PER_CHUNK, extractionPool);
+    }
+
+    @After
+    public void after() {
+        extractionPool.shutdown();
     }
 
     @Test
     public void testOARPdfParsing() {
-        final List<String> filenames = Arrays.asList(
-                "codul_deontologic_al_oar_2011_pdf_1445359410.pdf",
-                "regulament_cadru_2018_pdf_1536138396.pdf",
-                "rof_2018_pdf_1536138173.pdf");
-
-        filenames.forEach(filename -> {
+        FILENAMES.forEach(filename -> {
             File file = new File(classLoader.getResource(String.format("pdf/%s", filename)).getFile());
             try {
                 final PDDocument document = PDDocument.load(file);
-                final String content = pdfReader.getContent(document);
+                final String content = pdfReader.getContent(document).getText();
                 final String expectedContent = getExpectedContent(filename);
                 assertThat(expectedContent).isEqualToIgnoringWhitespace(content);
             } catch (IOException e) {
@@ -57,6 +62,61 @@ public class BasicOARPdfReaderTest {
         });
     }
 
+    @Test
+    public void parallelExtractionMatchesSequentialExtraction() throws IOException {
+        for (final String filename : FILENAMES) {
+            final File file = new File(classLoader.getResource(String.format("pdf/%s", filename)).getFile());
+            try (PDDocument document = PDDocument.load(file)) {
+                final AtomicInteger copies = new AtomicInteger();
+                final AtomicInteger copiesRead = new AtomicInteger();
+                final PDFContent sequential = pdfReader.getContent(document);
+                final PDFContent parallel = pdfReader.getContent(document, new PDDocumentLoader() {
+                    @Override
+                    public PDDocument load() throws IOException {
+                        copies.incrementAndGet();
+                        return PDDocument.load(file);
+                    }
+
+                    @Override
+                    public void copyRead(final long allocatedBytes) {
+                        if (allocatedBytes > 0) {
+                            copiesRead.incrementAndGet();
+                        }
+                    }
+                });
+
+                assertThat(parallel.getText()).isEqualTo(sequential.getText());
+                assertThat(parallel.getBoldLines()).isEqualTo(sequential.getBoldLines());
+                // one range is read from the document itself, every other one from a copy
+                final int ranges = Math.min(EXTRACTION_THREADS, document.getNumberOfPages() / PAGES_PER_CHUNK);
+                assertThat(copies.get()).as(filename).isEqualTo(ranges - 1);
+                // the allocation of every copy is reported, HotSpot counts it
+                assertThat(copiesRead.get()).as(filename).isEqualTo(copies.get());
+            }
+        }
+    }
+
+    @Test
+    public void boldLinesMarkHeadings() throws IOException {
+        final File file = new File(classLoader.getResource(String.format("pdf/%s", FILENAMES.get(0))).getFile());
+        try (PDDocument document = PDDocument.load(file)) {
+            final PDFContent content = pdfReader.getContent(document);
+            final String[] lines = content.getText().split("\\r\\n|\\n");
+
+            int headings = 0;
+            for (int i = 0; i < lines.length; i++) {
+                if (lines[i].startsWith("CAPITOLUL ")) {
+                    assertThat(content.getBoldLines().get(i)).as(lines[i]).isTrue();
+                    headings++;
+                }
+                if (lines[i].startsWith("(1)")) {
+                    assertThat(content.getBoldLines().get(i)).as(lines[i]).isFalse();
+                }
+            }
+            assertThat(headings).isPositive();
+        }
+    }
+
     private String getExpectedContent(final String filename) throws IOException {
         final String newFilename = filename.replace(".pdf", ".txt");
         final String filePath = new File(classLoader.getResource(String.format("pdf/%s", newFilename)).getFile()).getAbsolutePath();
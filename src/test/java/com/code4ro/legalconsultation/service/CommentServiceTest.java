@@ -11,6 +11,7 @@ import com.code4ro.legalconsultation.repository.CommentRepository;
 import com.code4ro.legalconsultation.service.api.DocumentNodeService;
 import com.code4ro.legalconsultation.service.api.MapperService;
 import com.code4ro.legalconsultation.service.impl.CommentServiceImpl;
+import com.code4ro.legalconsultation.service.impl.DocumentConsolidatedService;
 import com.code4ro.legalconsultation.util.CommentFactory;
 import com.code4ro.legalconsultation.util.DocumentNodeFactory;
 import com.code4ro.legalconsultation.util.RandomObjectFiller;
@@ -42,6 +43,8 @@ public class CommentServiceTest {
     private CurrentUserService currentUserService;
     @Mock
     private DocumentNodeService documentNodeService;
+    @Mock
+    private DocumentConsolidatedService documentConsolidatedService;
     @InjectMocks
     private CommentServiceImpl commentService;
 
@@ -71,6 +74,8 @@ public class CommentServiceTest {
 
         commentService.create(id, commentDto);
 
+        verify(documentNodeService).addToCommentCount(id, 1);
+        verify(documentConsolidatedService).incrementCommentVersion(documentNode);
         verify(commentRepository).save(comment);
         assertThat(comment.getOwner()).isEqualTo(currentUser);
         assertThat(comment.getDocumentNode()).isEqualTo(documentNode);
@@ -104,11 +109,16 @@ public class CommentServiceTest {
     public void delete() {
         final UUID id = UUID.randomUUID();
         final Comment comment = new Comment();
+        final DocumentNode documentNode = documentNodeFactory.create();
+        documentNode.setId(UUID.randomUUID());
+        comment.setDocumentNode(documentNode);
         when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
 
         commentService.delete(id);
 
         verify(commentRepository).delete(comment);
+        verify(documentNodeService).addToCommentCount(documentNode.getId(), -1);
+        verify(documentConsolidatedService).incrementCommentVersion(documentNode);
     }
 
     @Test(expected = LegalValidationException.class)
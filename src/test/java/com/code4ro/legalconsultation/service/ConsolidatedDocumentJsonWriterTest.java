@@ -0,0 +1,94 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
+import com.code4ro.legalconsultation.service.impl.ConsolidatedDocumentJsonWriter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConsolidatedDocumentJsonWriterTest {
+
+    @Mock
+    private DocumentNodeBatchRepository documentNodeBatchRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ConsolidatedDocumentJsonWriter writer;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Before
+    public void before() {
+        writer = new ConsolidatedDocumentJsonWriter(documentNodeBatchRepository, transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void writesTheNodesNestedUnderTheirParents() throws Exception {
+        final DocumentNode root = createNode(null, DocumentNodeType.DOCUMENT);
+        final DocumentNode chapter = createNode(root, DocumentNodeType.CHAPTER);
+        final DocumentNode article = createNode(chapter, DocumentNodeType.ARTICLE);
+        final DocumentNode otherChapter = createNode(root, DocumentNodeType.CHAPTER);
+        otherChapter.setCommentCount(3);
+        final List<DocumentNode> nodes = Arrays.asList(root, chapter, article, otherChapter);
+        doAnswer(invocation -> {
+            nodes.forEach(invocation.<Consumer<DocumentNode>>getArgument(1));
+            return null;
+        }).when(documentNodeBatchRepository).forEachNode(eq(root.getId()), any(Consumer.class));
+        final UUID consolidatedId = UUID.randomUUID();
+
+        final JsonNode json = objectMapper.readTree(
+                objectMapper.writeValueAsString(writer.render(consolidatedId, root.getId())));
+
+        assertThat(json.get("id").asText()).isEqualTo(consolidatedId.toString());
+        final JsonNode documentNode = json.get("documentNode");
+        assertThat(documentNode.get("id").asText()).isEqualTo(root.getId().toString());
+        assertThat(documentNode.get("children")).hasSize(2);
+        final JsonNode firstChapter = documentNode.get("children").get(0);
+        assertThat(firstChapter.get("documentNodeType").asText()).isEqualTo("CHAPTER");
+        assertThat(firstChapter.get("children").get(0).get("id").asText()).isEqualTo(article.getId().toString());
+        assertThat(firstChapter.get("children").get(0).get("children")).isEmpty();
+        final JsonNode secondChapter = documentNode.get("children").get(1);
+        assertThat(secondChapter.get("id").asText()).isEqualTo(otherChapter.getId().toString());
+        assertThat(secondChapter.get("numberOfComments").asLong()).isEqualTo(3);
+        assertThat(secondChapter.get("content").isNull()).isTrue();
+    }
+
+    @Test
+    public void writesNullForADocumentDeletedBeforeItsNodesAreRead() throws Exception {
+        final UUID consolidatedId = UUID.randomUUID();
+
+        final JsonNode json = objectMapper.readTree(
+                objectMapper.writeValueAsString(writer.render(consolidatedId, UUID.randomUUID())));
+
+        assertThat(json.get("id").asText()).isEqualTo(consolidatedId.toString());
+        assertThat(json.get("documentNode").isNull()).isTrue();
+    }
+
+    private DocumentNode createNode(final DocumentNode parent, final DocumentNodeType type) {
+        final DocumentNode node = new DocumentNode();
+        node.setId(UUID.randomUUID());
+        node.setParent(parent);
+        node.setDocumentNodeType(type);
+        node.setTitle(type.name().toLowerCase());
+        return node;
+    }
+}
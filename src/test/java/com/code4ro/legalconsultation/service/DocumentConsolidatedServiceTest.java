@@ -2,11 +2,18 @@ package com.code4ro.legalconsultation.service;
 
 import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
 import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
 import com.code4ro.legalconsultation.repository.DocumentConsolidatedRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeRepository;
+import com.code4ro.legalconsultation.service.api.DocumentNodeService;
 import com.code4ro.legalconsultation.service.api.MapperService;
+import com.code4ro.legalconsultation.service.impl.ConsolidatedDocumentJsonWriter;
 import com.code4ro.legalconsultation.service.impl.DocumentConsolidatedService;
 import com.code4ro.legalconsultation.util.DocumentNodeFactory;
 import com.code4ro.legalconsultation.util.RandomObjectFiller;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.node.POJONode;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -16,8 +23,12 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -26,7 +37,15 @@ public class DocumentConsolidatedServiceTest {
     @Mock
     private DocumentConsolidatedRepository documentConsolidatedRepository;
     @Mock
+    private DocumentNodeRepository documentNodeRepository;
+    @Mock
+    private DocumentNodeBatchRepository documentNodeBatchRepository;
+    @Mock
+    private DocumentNodeService documentNodeService;
+    @Mock
     private MapperService mapperService;
+    @Mock
+    private ConsolidatedDocumentJsonWriter consolidatedDocumentJsonWriter;
 
     @InjectMocks
     private DocumentConsolidatedService documentConsolidatedService;
@@ -36,10 +55,14 @@ public class DocumentConsolidatedServiceTest {
     @Test
     public void getDocument(){
         final UUID uuid = UUID.randomUUID();
-        when(documentConsolidatedRepository.findById(any(UUID.class))).thenReturn(Optional.of(new DocumentConsolidated()));
+        final DocumentNode documentNode = new DocumentNode();
+        documentNode.setId(UUID.randomUUID());
+        when(documentConsolidatedRepository.findById(any(UUID.class)))
+                .thenReturn(Optional.of(new DocumentConsolidated(new DocumentMetadata(), documentNode)));
 
         documentConsolidatedService.getOne(uuid);
         verify(documentConsolidatedRepository).findById(uuid);
+        verify(documentNodeService).getTree(documentNode.getId());
     }
 
     @Test
@@ -51,11 +74,31 @@ public class DocumentConsolidatedServiceTest {
     @Test
     public void saveDocument() {
         final DocumentMetadata documentMetadata = RandomObjectFiller.createAndFill(DocumentMetadata.class);
+        final DocumentNode documentNode = documentNodeFactory.create();
         DocumentConsolidated documentConsolidated =
-                new DocumentConsolidated(documentMetadata, documentNodeFactory.create());
+                new DocumentConsolidated(documentMetadata, documentNode);
+        final UUID rootId = UUID.randomUUID();
+        final DocumentNode rootReference = new DocumentNode();
+        when(documentNodeBatchRepository.insertTree(documentNode)).thenReturn(rootId);
+        when(documentNodeRepository.getOne(rootId)).thenReturn(rootReference);
+
+        documentConsolidatedService.saveOne(documentConsolidated);
+
+        verify(documentNodeBatchRepository).insertTree(documentNode);
+        verify(documentConsolidatedRepository).saveAndFlush(documentConsolidated);
+        assertThat(documentConsolidated.getDocumentNode()).isSameAs(rootReference);
+    }
+
+    @Test
+    public void saveDocumentWithSavedNodes() {
+        final DocumentNode documentNode = documentNodeFactory.create();
+        documentNode.setId(UUID.randomUUID());
+        final DocumentConsolidated documentConsolidated = new DocumentConsolidated(new DocumentMetadata(), documentNode);
+
         documentConsolidatedService.saveOne(documentConsolidated);
 
-        verify(documentConsolidatedRepository).save(documentConsolidated);
+        verifyZeroInteractions(documentNodeBatchRepository);
+        verify(documentConsolidatedRepository).saveAndFlush(documentConsolidated);
     }
 
     @Test
@@ -63,6 +106,38 @@ public class DocumentConsolidatedServiceTest {
         final UUID id = UUID.randomUUID();
         documentConsolidatedService.deleteById(id);
 
-        verify(documentConsolidatedRepository).deleteById(id);
+        verify(documentConsolidatedRepository).deleteRowById(id);
+    }
+
+    @Test
+    public void getDocumentStreamed(){
+        final DocumentConsolidated consolidated = createSavedConsolidated();
+        final UUID rootId = consolidated.getDocumentNode().getId();
+        consolidated.getDocumentNode().setDocumentId(rootId);
+        final JsonSerializable rendered = mock(JsonSerializable.class);
+        when(documentConsolidatedRepository.findById(consolidated.getId())).thenReturn(Optional.of(consolidated));
+        when(consolidatedDocumentJsonWriter.render(consolidated.getId(), rootId)).thenReturn(rendered);
+
+        assertThat(documentConsolidatedService.getOneStreamed(consolidated.getId())).isSameAs(rendered);
+        verify(documentNodeService, never()).getTree(any());
+    }
+
+    @Test
+    public void getDocumentStreamedSavedWithoutDocumentId(){
+        final DocumentConsolidated consolidated = createSavedConsolidated();
+        final UUID rootId = consolidated.getDocumentNode().getId();
+        when(documentConsolidatedRepository.findById(consolidated.getId())).thenReturn(Optional.of(consolidated));
+
+        assertThat(documentConsolidatedService.getOneStreamed(consolidated.getId())).isInstanceOf(POJONode.class);
+        verify(documentNodeService).getTree(rootId);
+        verifyZeroInteractions(consolidatedDocumentJsonWriter);
+    }
+
+    private DocumentConsolidated createSavedConsolidated() {
+        final DocumentNode documentNode = documentNodeFactory.create();
+        documentNode.setId(UUID.randomUUID());
+        final DocumentConsolidated consolidated = new DocumentConsolidated(new DocumentMetadata(), documentNode);
+        consolidated.setId(UUID.randomUUID());
+        return consolidated;
     }
 }
@@ -0,0 +1,100 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionJobDto;
+import com.code4ro.legalconsultation.model.dto.DocumentIngestionStage;
+import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
+import com.code4ro.legalconsultation.service.api.DocumentService;
+import com.code4ro.legalconsultation.service.impl.DocumentIngestionServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DocumentIngestionServiceTest {
+
+    @Mock
+    private DocumentService documentService;
+
+    private DocumentIngestionServiceImpl documentIngestionService;
+
+    private final MockMultipartFile file = new MockMultipartFile("file", "file.pdf", "application/pdf",
+            "content".getBytes());
+
+    @Before
+    public void before() {
+        documentIngestionService = new DocumentIngestionServiceImpl(documentService, new SyncTaskExecutor(), 60);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void submitCompletes() {
+        final DocumentConsolidated consolidated = new DocumentConsolidated();
+        consolidated.setId(UUID.randomUUID());
+        when(documentService.create(any(DocumentViewDto.class), any(), any(Consumer.class))).thenAnswer(invocation -> {
+            final Consumer<DocumentIngestionStage> listener = invocation.getArgument(2);
+            listener.accept(DocumentIngestionStage.STORING);
+            listener.accept(DocumentIngestionStage.PARSING);
+            return consolidated;
+        });
+
+        final DocumentIngestionJobDto submitted = documentIngestionService.submit(new DocumentViewDto(), file);
+
+        final DocumentIngestionJobDto job = documentIngestionService.getJob(submitted.getId());
+        assertThat(job.getStage()).isEqualTo(DocumentIngestionStage.COMPLETED);
+        assertThat(job.getProgress()).isEqualTo(100);
+        assertThat(job.getDocumentId()).isEqualTo(consolidated.getId());
+        assertThat(job.getError()).isNull();
+        assertThat(job.getFinishDate()).isNotNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void submitReportsFailure() {
+        when(documentService.create(any(DocumentViewDto.class), any(), any(Consumer.class))).thenAnswer(invocation -> {
+            final Consumer<DocumentIngestionStage> listener = invocation.getArgument(2);
+            listener.accept(DocumentIngestionStage.EXTRACTING);
+            throw new LegalValidationException("document.parse.pdf.failed", HttpStatus.BAD_REQUEST);
+        });
+
+        final DocumentIngestionJobDto submitted = documentIngestionService.submit(new DocumentViewDto(), file);
+
+        final DocumentIngestionJobDto job = documentIngestionService.getJob(submitted.getId());
+        assertThat(job.getStage()).isEqualTo(DocumentIngestionStage.FAILED);
+        assertThat(job.getProgress()).isEqualTo(DocumentIngestionStage.EXTRACTING.progress);
+        assertThat(job.getError().getI18nErrorKey()).isEqualTo("document.parse.pdf.failed");
+        assertThat(job.getDocumentId()).isNull();
+    }
+
+    @Test(expected = LegalValidationException.class)
+    public void submitRejectedWhenQueueIsFull() {
+        final TaskExecutor executor = mock(TaskExecutor.class);
+        doThrow(new TaskRejectedException("full")).when(executor).execute(any());
+        documentIngestionService = new DocumentIngestionServiceImpl(documentService, executor, 60);
+
+        documentIngestionService.submit(new DocumentViewDto(), file);
+    }
+
+    @Test(expected = EntityNotFoundException.class)
+    public void getUnknownJob() {
+        documentIngestionService.getJob(UUID.randomUUID());
+    }
+}
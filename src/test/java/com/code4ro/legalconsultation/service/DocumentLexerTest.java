@@ -0,0 +1,53 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentLexer;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.StartToken;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.TokenStream;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentLexerTest {
+
+    @Test
+    public void lex() {
+        final TokenStream tokens = DocumentLexer.lex(new String[]{
+                "CAPITOLUL I: Dispoziţii generale",
+                "SECŢIUNEA 1",
+                "Art. 12 Obligaţiile avocatului",
+                "(3)Avocatul are obligaţia",
+                "b) să respecte",
+                "text obişnuit al articolului",
+                "  Art. 5"});
+
+        assertThat(tokens.getToken(0)).isEqualTo(StartToken.CHAPTER);
+        assertThat(tokens.getIdentifier(0)).isEqualTo("I");
+        assertThat(tokens.getTitle(0)).isEqualTo("Dispoziţii generale");
+
+        assertThat(tokens.getToken(1)).isEqualTo(StartToken.SECTION);
+        assertThat(tokens.isWithoutTitle(1)).isTrue();
+        assertThat(tokens.getIdentifier(1)).isEqualTo("1");
+        assertThat(tokens.getTitle(1)).isNull();
+
+        assertThat(tokens.getToken(2)).isEqualTo(StartToken.ARTICLE);
+        assertThat(tokens.isWithoutTitle(2)).isFalse();
+        assertThat(tokens.getIdentifier(2)).isEqualTo("12");
+        assertThat(tokens.getTitle(2)).isEqualTo("Obligaţiile avocatului");
+
+        assertThat(tokens.getToken(3)).isEqualTo(StartToken.PARAGRAPH);
+        assertThat(tokens.getIdentifier(3)).isEqualTo("3");
+        assertThat(tokens.getTitle(3)).isEqualTo("Avocatul are obligaţia");
+
+        assertThat(tokens.getToken(4)).isEqualTo(StartToken.ALIGNMENT);
+        assertThat(tokens.getIdentifier(4)).isEqualTo("b");
+        assertThat(tokens.getTitle(4)).isEqualTo("să respecte");
+
+        assertThat(tokens.getToken(5)).isNull();
+        assertThat(tokens.isRegular(5)).isTrue();
+
+        // only the trimmed line starts an article, so it is not a child start but it is not content either
+        assertThat(tokens.getLine(6)).isEqualTo("Art. 5");
+        assertThat(tokens.getToken(6)).isNull();
+        assertThat(tokens.isRegular(6)).isFalse();
+    }
+}
@@ -0,0 +1,146 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.repository.DocumentConsolidatedRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
+import com.code4ro.legalconsultation.repository.DocumentNodeRepository;
+import com.code4ro.legalconsultation.service.impl.DocumentNodeServiceImpl;
+import com.code4ro.legalconsultation.util.DocumentNodeFactory;
+import org.hibernate.Cache;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DocumentNodeServiceTest {
+
+    @Mock
+    private DocumentNodeRepository documentNodeRepository;
+    @Mock
+    private DocumentNodeBatchRepository documentNodeBatchRepository;
+    @Mock
+    private DocumentConsolidatedRepository documentConsolidatedRepository;
+    @Mock
+    private Cache secondLevelCache;
+
+    @InjectMocks
+    private DocumentNodeServiceImpl documentNodeService;
+
+    private final DocumentNodeFactory documentNodeFactory = new DocumentNodeFactory();
+
+    @Test
+    public void getTreeReadsAnUncachedDocumentWithOneQuery() {
+        final DocumentNode root = documentNodeFactory.create();
+        root.setId(UUID.randomUUID());
+        when(documentNodeRepository.findById(root.getId())).thenReturn(Optional.of(root));
+
+        assertThat(documentNodeService.getTree(root.getId())).isSameAs(root);
+        verify(documentNodeRepository).findTreeByDocumentId(root.getId());
+    }
+
+    @Test
+    public void getTreeWalksACachedDocument() {
+        final DocumentNode root = documentNodeFactory.create();
+        root.setId(UUID.randomUUID());
+        when(secondLevelCache.containsEntity(DocumentNode.class, root.getId())).thenReturn(true);
+        when(secondLevelCache.containsCollection(DocumentNode.class.getName() + ".children", root.getId())).thenReturn(true);
+        when(documentNodeRepository.findById(root.getId())).thenReturn(Optional.of(root));
+
+        assertThat(documentNodeService.getTree(root.getId())).isSameAs(root);
+        verify(documentNodeRepository, never()).findTreeByDocumentId(any());
+    }
+
+    @Test
+    public void addToCommentCount() {
+        final DocumentNode node = documentNodeFactory.create();
+        node.setId(UUID.randomUUID());
+        node.setCommentCount(2);
+        when(documentNodeRepository.findForUpdateById(node.getId())).thenReturn(Optional.of(node));
+
+        documentNodeService.addToCommentCount(node.getId(), -1);
+
+        assertThat(node.getCommentCount()).isEqualTo(1);
+    }
+
+    @Test(expected = EntityNotFoundException.class)
+    public void addToCommentCountOfMissingNode() {
+        final UUID id = UUID.randomUUID();
+        when(documentNodeRepository.findForUpdateById(id)).thenReturn(Optional.empty());
+
+        documentNodeService.addToCommentCount(id, 1);
+    }
+
+    @Test
+    public void evictTree() {
+        final UUID rootId = UUID.randomUUID();
+        final UUID childId = UUID.randomUUID();
+        when(documentNodeRepository.findIdsByDocumentId(rootId)).thenReturn(Arrays.asList(rootId, childId));
+
+        documentNodeService.evictTree(rootId);
+
+        verify(secondLevelCache, atLeastOnce()).evictEntityData(DocumentNode.class, rootId);
+        verify(secondLevelCache).evictEntityData(DocumentNode.class, childId);
+        verify(secondLevelCache).evictCollectionData(DocumentNode.class.getName() + ".children", childId);
+    }
+
+    @Test
+    public void deleteTree() {
+        final UUID rootId = UUID.randomUUID();
+        final UUID childId = UUID.randomUUID();
+        when(documentNodeRepository.findIdsByDocumentId(rootId)).thenReturn(Arrays.asList(rootId, childId));
+
+        documentNodeService.deleteTree(rootId);
+
+        verify(documentNodeBatchRepository).deleteTree(rootId);
+        verify(documentNodeRepository, never()).deleteById(any());
+        verify(secondLevelCache).evictEntityData(DocumentNode.class, rootId);
+        verify(secondLevelCache).evictEntityData(DocumentNode.class, childId);
+    }
+
+    @Test
+    public void deleteTreeSavedWithoutDocumentId() {
+        final UUID rootId = UUID.randomUUID();
+        when(documentNodeRepository.findIdsByDocumentId(rootId)).thenReturn(Collections.emptyList());
+
+        documentNodeService.deleteTree(rootId);
+
+        verify(documentNodeRepository).deleteById(rootId);
+        verify(documentNodeBatchRepository, never()).deleteTree(any());
+    }
+
+    @Test
+    public void reconcileCommentCountsChangesTheCommentVersionOfTheRepairedDocuments() {
+        final UUID documentId = UUID.randomUUID();
+        when(documentNodeRepository.findDocumentIdsWithDriftedCommentCounts()).thenReturn(Collections.singletonList(documentId));
+        when(documentNodeRepository.reconcileCommentCounts()).thenReturn(2);
+
+        assertThat(documentNodeService.reconcileCommentCounts()).isEqualTo(2);
+
+        verify(documentConsolidatedRepository).incrementCommentVersions(eq(Collections.singletonList(documentId)), any());
+    }
+
+    @Test
+    public void reconcileCommentCountsWithoutDriftKeepsTheCommentVersions() {
+        when(documentNodeRepository.findDocumentIdsWithDriftedCommentCounts()).thenReturn(Collections.emptyList());
+
+        assertThat(documentNodeService.reconcileCommentCounts()).isZero();
+
+        verify(documentConsolidatedRepository, never()).incrementCommentVersions(any(), any());
+    }
+}
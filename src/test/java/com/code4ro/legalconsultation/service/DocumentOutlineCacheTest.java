@@ -0,0 +1,89 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.service.impl.DocumentOutlineCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentOutlineCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void outlineIsWrittenAsTheTreeWithoutContent() throws Exception {
+        final DocumentOutline outline = DocumentOutline.of(createTree());
+
+        final JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(outline));
+
+        assertThat(outline.size()).isEqualTo(5);
+        assertThat(json.get("documentNodeType").asText()).isEqualTo("DOCUMENT");
+        assertThat(json.has("content")).isFalse();
+        final JsonNode chapters = json.get("children");
+        assertThat(chapters).hasSize(2);
+        assertThat(chapters.get(0).get("identifier").asText()).isEqualTo("I");
+        assertThat(chapters.get(0).get("children")).hasSize(2);
+        assertThat(chapters.get(0).get("children").get(1).get("title").asText()).isEqualTo("article 2");
+        assertThat(chapters.get(0).get("children").get(1).get("children")).isEmpty();
+        assertThat(chapters.get(1).get("title").asText()).isEqualTo("chapter II");
+        assertThat(chapters.get(1).get("children")).isEmpty();
+    }
+
+    @Test
+    public void leastRecentlyUsedOutlineIsEvicted() {
+        final DocumentOutlineCache cache = new DocumentOutlineCache(2, new SimpleMeterRegistry());
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        cache.put(first, DocumentOutline.of(createTree()));
+        cache.put(second, DocumentOutline.of(createTree()));
+        cache.get(first);
+        cache.put(UUID.randomUUID(), DocumentOutline.of(createTree()));
+
+        assertThat(cache.get(first)).isPresent();
+        assertThat(cache.get(second)).isNotPresent();
+    }
+
+    @Test
+    public void sizeOfTheOutlinesIsPublished() {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final DocumentOutlineCache cache = new DocumentOutlineCache(2, meterRegistry);
+        final DocumentOutline outline = DocumentOutline.of(createTree());
+        cache.put(UUID.randomUUID(), outline);
+        cache.put(UUID.randomUUID(), outline);
+
+        assertThat(outline.getSizeInBytes()).isPositive();
+        assertThat(meterRegistry.get("document.outline.cache.size").gauge().value())
+                .isEqualTo(2.0 * outline.getSizeInBytes());
+        assertThat(meterRegistry.get("document.outline.cache.entries").gauge().value()).isEqualTo(2.0);
+    }
+
+    private DocumentNode createTree() {
+        final DocumentNode document = createNode(DocumentNodeType.DOCUMENT, null, "document");
+        final DocumentNode firstChapter = createNode(DocumentNodeType.CHAPTER, "I", "chapter I");
+        firstChapter.setChildren(Arrays.asList(
+                createNode(DocumentNodeType.ARTICLE, "1", "article 1"),
+                createNode(DocumentNodeType.ARTICLE, "2", "article 2")));
+        final DocumentNode secondChapter = createNode(DocumentNodeType.CHAPTER, "II", "chapter II");
+        secondChapter.setChildren(Collections.emptyList());
+        document.setChildren(Arrays.asList(firstChapter, secondChapter));
+        return document;
+    }
+
+    private DocumentNode createNode(final DocumentNodeType type, final String identifier, final String title) {
+        final DocumentNode node = new DocumentNode();
+        node.setDocumentNodeType(type);
+        node.setIdentifier(identifier);
+        node.setTitle(title);
+        node.setContent("content of " + title);
+        return node;
+    }
+}
@@ -0,0 +1,73 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.config.ingestion.PdfExtractionConfiguration;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.AlignmentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ArticleParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ChapterParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentNodeParserFactory;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParsingContext;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ParagraphParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.SectionParser;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.BasicOARPdfReader;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFBoldTextStripperPool;
+import com.code4ro.legalconsultation.util.DocumentNodeTreePrinter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the trees built for the test PDFs with the ones in the matching .tree files. They were recorded with
+ * the recursive parser the iterative one replaced, after titles started taking every bold line of their heading;
+ * apart from those titles, the trees are the same as the ones the first version of the parser built.
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {
+        DocumentParser.class, ChapterParser.class, SectionParser.class, ArticleParser.class,
+        ParagraphParser.class, AlignmentParser.class, DocumentNodeParserFactory.class,
+        PDFBoldTextStripperPool.class, BasicOARPdfReader.class, PdfExtractionConfiguration.class})
+@TestPropertySource(properties = {"app.pdf.pagesPerChunk=8", "app.pdf.extractionThreads=2"})
+public class DocumentParserGoldenTreeTest {
+    private static final List<String> FIXTURES = Arrays.asList(
+            "codul_deontologic_al_oar_2011_pdf_1445359410",
+            "regulament_cadru_2018_pdf_1536138396",
+            "rof_2018_pdf_1536138173");
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    @Autowired
+    private BasicOARPdfReader pdfReader;
+    @Autowired
+    private DocumentParser documentParser;
+
+    @Test
+    public void parsedTreesMatchGoldenTrees() throws Exception {
+        for (final String fixture : FIXTURES) {
+            final File file = new File(classLoader.getResource(String.format("pdf/%s.pdf", fixture)).getFile());
+            try (PDDocument document = PDDocument.load(file)) {
+                final DocumentNode root = documentParser.parse(new DocumentParsingContext(pdfReader.getContent(document)));
+
+                assertThat(DocumentNodeTreePrinter.print(root)).as(fixture).isEqualTo(getGoldenTree(fixture));
+            }
+        }
+    }
+
+    private String getGoldenTree(final String fixture) throws IOException, URISyntaxException {
+        return Files.readString(Paths.get(classLoader.getResource(String.format("pdf/%s.tree", fixture)).toURI()));
+    }
+}
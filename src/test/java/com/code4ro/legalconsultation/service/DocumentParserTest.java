@@ -0,0 +1,87 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.AlignmentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ArticleParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ChapterParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentNodeParserFactory;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParsingContext;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ParagraphParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.SectionParser;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {
+        DocumentParser.class, ChapterParser.class, SectionParser.class, ArticleParser.class,
+        ParagraphParser.class, AlignmentParser.class, DocumentNodeParserFactory.class})
+public class DocumentParserTest {
+
+    @Autowired
+    private DocumentParser documentParser;
+
+    @Test
+    public void boldTitleGoesOnOverTheFollowingBoldLines() {
+        final DocumentNode document = parse(
+                "**REGULAMENT-CADRU nr. 1404/1 din 30 iunie 2018 privind",
+                "**înfiinţarea filialelor teritoriale",
+                "În temeiul art. 29 din Legea nr. 184/2001,",
+                "**Art. 1: Filialele teritoriale ale Ordinului Arhitecţilor din",
+                "**România",
+                "(1)Filialele teritoriale se înfiinţează prin lege.",
+                "(2)Filialele funcţionează ca structuri teritoriale.",
+                " ");
+
+        assertThat(document.getTitle())
+                .isEqualTo("REGULAMENT-CADRU nr. 1404/1 din 30 iunie 2018 privind înfiinţarea filialelor teritoriale");
+        assertThat(document.getContent()).isEqualTo("În temeiul art. 29 din Legea nr. 184/2001,");
+
+        final DocumentNode article = document.getChildren().get(0);
+        assertThat(article.getDocumentNodeType()).isEqualTo(DocumentNodeType.ARTICLE);
+        assertThat(article.getIdentifier()).isEqualTo("1");
+        assertThat(article.getTitle()).isEqualTo("Filialele teritoriale ale Ordinului Arhitecţilor din România");
+        assertThat(article.getContent()).isNull();
+        assertThat(article.getChildren()).extracting(DocumentNode::getContent).containsExactly(
+                "Filialele teritoriale se înfiinţează prin lege.",
+                "Filialele funcţionează ca structuri teritoriale.");
+    }
+
+    @Test
+    public void boldTitleStopsAtTheNextStartLine() {
+        final DocumentNode document = parse(
+                "**REGULAMENT nr. 1403/1 din 30 iunie 2018",
+                "**Art. 1: Dispoziţii generale",
+                "**Art. 2: Scopul Ordinului",
+                "(1)Ordinul reprezintă arhitecţii.",
+                " ");
+
+        assertThat(document.getTitle()).isEqualTo("REGULAMENT nr. 1403/1 din 30 iunie 2018");
+        assertThat(document.getChildren()).extracting(DocumentNode::getTitle)
+                .containsExactly("Dispoziţii generale", "Scopul Ordinului");
+        assertThat(document.getChildren().get(0).getChildren()).isEmpty();
+        assertThat(document.getChildren().get(1).getChildren()).hasSize(1);
+    }
+
+    // lines starting with ** are bold, the marker is not part of the text; like the extracted pages, the
+    // documents end with a blank line
+    private DocumentNode parse(final String... lines) {
+        final String[] text = new String[lines.length];
+        final BitSet boldLines = new BitSet();
+        for (int i = 0; i < lines.length; i++) {
+            final boolean bold = lines[i].startsWith("**");
+            boldLines.set(i, bold);
+            text[i] = bold ? lines[i].substring(2) : lines[i];
+        }
+        return documentParser.parse(new DocumentParsingContext(new PDFContent(String.join("\n", text), boldLines)));
+    }
+}
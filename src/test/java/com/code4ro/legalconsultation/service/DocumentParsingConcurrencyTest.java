@@ -0,0 +1,102 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.config.ingestion.PdfExtractionConfiguration;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.AlignmentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ArticleParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ChapterParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentNodeParserFactory;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.DocumentParsingContext;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.ParagraphParser;
+import com.code4ro.legalconsultation.service.impl.pdf.parser.SectionParser;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.BasicOARPdfReader;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFBoldTextStripperPool;
+import com.code4ro.legalconsultation.util.DocumentNodeTreePrinter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {
+        DocumentParser.class, ChapterParser.class, SectionParser.class, ArticleParser.class,
+        ParagraphParser.class, AlignmentParser.class, DocumentNodeParserFactory.class,
+        PDFBoldTextStripperPool.class, BasicOARPdfReader.class, PdfExtractionConfiguration.class})
+@TestPropertySource(properties = {"app.pdf.pagesPerChunk=2", "app.pdf.extractionThreads=2"})
+public class DocumentParsingConcurrencyTest {
+    private static final List<String> FILENAMES = Arrays.asList(
+            "codul_deontologic_al_oar_2011_pdf_1445359410.pdf",
+            "regulament_cadru_2018_pdf_1536138396.pdf",
+            "rof_2018_pdf_1536138173.pdf");
+    private static final int ROUNDS = 4;
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    @Autowired
+    private BasicOARPdfReader pdfReader;
+    @Autowired
+    private DocumentParser documentParser;
+
+    @Test
+    public void parallelParsingMatchesSequentialParsing() throws Exception {
+        final Map<String, String> expectedTrees = new HashMap<>();
+        for (final String filename : FILENAMES) {
+            expectedTrees.put(filename, readAndParse(filename));
+        }
+
+        final int tasks = FILENAMES.size() * ROUNDS;
+        final ExecutorService executor = Executors.newFixedThreadPool(tasks);
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            final Map<Future<String>, String> results = new HashMap<>();
+            for (int i = 0; i < tasks; i++) {
+                final String filename = FILENAMES.get(i % FILENAMES.size());
+                results.put(executor.submit(() -> {
+                    start.await();
+                    return readAndParse(filename);
+                }), filename);
+            }
+            start.countDown();
+
+            final List<String> mismatches = new ArrayList<>();
+            for (final Map.Entry<Future<String>, String> result : results.entrySet()) {
+                final String tree = result.getKey().get(2, TimeUnit.MINUTES);
+                if (!expectedTrees.get(result.getValue()).equals(tree)) {
+                    mismatches.add(result.getValue());
+                }
+            }
+            assertThat(mismatches).isEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String readAndParse(final String filename) throws IOException {
+        final File file = new File(classLoader.getResource(String.format("pdf/%s", filename)).getFile());
+        try (PDDocument document = PDDocument.load(file)) {
+            final PDFContent content = pdfReader.getContent(document, () -> PDDocument.load(file));
+            final DocumentNode root = documentParser.parse(new DocumentParsingContext(content));
+            return DocumentNodeTreePrinter.print(root);
+        }
+    }
+}
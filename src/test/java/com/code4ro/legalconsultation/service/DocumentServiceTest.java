@@ -1,30 +1,76 @@
 package com.code4ro.legalconsultation.service;
 
+import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
 import com.code4ro.legalconsultation.model.dto.DocumentConsolidatedDto;
+import com.code4ro.legalconsultation.model.dto.DocumentOutline;
+import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
 import com.code4ro.legalconsultation.model.persistence.DocumentConsolidated;
+import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentType;
+import com.code4ro.legalconsultation.service.api.DocumentNodeService;
+import com.code4ro.legalconsultation.service.api.PDFService;
+import com.code4ro.legalconsultation.service.api.StorageApi;
 import com.code4ro.legalconsultation.service.impl.DocumentConsolidatedService;
+import com.code4ro.legalconsultation.service.impl.DocumentMetadataService;
+import com.code4ro.legalconsultation.service.impl.DocumentOutlineCache;
 import com.code4ro.legalconsultation.service.impl.DocumentServiceImpl;
+import com.code4ro.legalconsultation.service.impl.pdf.ParsedDocumentCache;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockMultipartFile;
 
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DocumentServiceTest {
 
+    // SHA-256 of "pdf"
+    private static final String PDF_HASH = "c35b21d6ca39aa7cc3b79a705d989f1a6e88b99ab43988d74048799e3db926a3";
+    private static final long ASYNC_DELETION_NODE_THRESHOLD = 100;
+
     @Mock
     private DocumentConsolidatedService documentConsolidatedService;
+    @Mock
+    private DocumentMetadataService documentMetadataService;
+    @Mock
+    private PDFService pdfService;
+    @Mock
+    private DocumentNodeService documentNodeService;
+    @Mock
+    private StorageApi storageApi;
+    @Mock
+    private ParsedDocumentCache parsedDocumentCache;
+    @Mock
+    private DocumentOutlineCache documentOutlineCache;
+    @Mock
+    private TaskExecutor documentDeletionExecutor;
 
-    @InjectMocks
     private DocumentServiceImpl documentService;
 
+    @Before
+    public void before() {
+        documentService = new DocumentServiceImpl(documentConsolidatedService, documentMetadataService, pdfService,
+                documentNodeService, storageApi, parsedDocumentCache, documentOutlineCache, documentDeletionExecutor,
+                ASYNC_DELETION_NODE_THRESHOLD);
+    }
+
     @Test
     public void getDocument(){
         final UUID uuid = UUID.randomUUID();
@@ -47,18 +93,204 @@ public class DocumentServiceTest {
 
     @Test
     public void getAllDocuments(){
-        documentService.fetchAll();
+        documentService.fetchAll(DocumentType.HG, "initiator", PageRequest.of(1, 10));
+
+        verify(documentMetadataService).fetchAll(DocumentType.HG, "initiator",
+                PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "dateOfReceipt", "id")));
+    }
+
+    @Test
+    public void getAllDocumentsSortedByNumber(){
+        documentService.fetchAll(null, null, PageRequest.of(0, 10, Sort.by("documentNumber")));
+
+        verify(documentMetadataService).fetchAll(null, null,
+                PageRequest.of(0, 10, Sort.by("documentNumber", "id")));
+    }
+
+    @Test(expected = LegalValidationException.class)
+    public void getAllDocumentsSortedByAnUnindexedProperty(){
+        documentService.fetchAll(null, null, PageRequest.of(0, 10, Sort.by("documentTitle")));
+    }
 
-        verify(documentConsolidatedService).findAll();
+    @Test
+    public void deleteDocument() throws Exception {
+        final UUID uuid = UUID.randomUUID();
+        final DocumentConsolidated consolidated = createSavedConsolidated();
+        when(documentConsolidatedService.getEntity(uuid)).thenReturn(consolidated);
+        when(documentNodeService.countTree(consolidated.getDocumentNode().getId())).thenReturn(ASYNC_DELETION_NODE_THRESHOLD);
+
+        documentService.deleteById(uuid);
+
+        verify(documentConsolidatedService).deleteById(uuid);
+        verify(documentMetadataService).deleteById(consolidated.getDocumentMetadata().getId().toString());
+        verify(documentNodeService).deleteTree(consolidated.getDocumentNode().getId());
+        verify(storageApi).deleteFile("stored.pdf");
+        verify(documentDeletionExecutor, never()).execute(any());
     }
 
     @Test
-    public void deleteDocument(){
+    public void deleteLargeDocumentDeletesItsNodesInTheBackground() throws Exception {
         final UUID uuid = UUID.randomUUID();
+        final DocumentConsolidated consolidated = createSavedConsolidated();
+        when(documentConsolidatedService.getEntity(uuid)).thenReturn(consolidated);
+        when(documentNodeService.countTree(consolidated.getDocumentNode().getId()))
+                .thenReturn(ASYNC_DELETION_NODE_THRESHOLD + 1);
 
         documentService.deleteById(uuid);
 
         verify(documentConsolidatedService).deleteById(uuid);
+        verify(documentNodeService, never()).deleteTree(any());
+        verify(storageApi, never()).deleteFile(any());
+
+        final ArgumentCaptor<Runnable> deletion = ArgumentCaptor.forClass(Runnable.class);
+        verify(documentDeletionExecutor).execute(deletion.capture());
+        deletion.getValue().run();
+
+        verify(documentNodeService).deleteTree(consolidated.getDocumentNode().getId());
+        verify(storageApi).deleteFile("stored.pdf");
     }
 
+    @Test
+    public void updateWithTheSameFileReusesStoredFileAndParseResult() throws Exception {
+        final UUID uuid = UUID.randomUUID();
+        final DocumentMetadata currentMetadata = new DocumentMetadata();
+        currentMetadata.setId(UUID.randomUUID());
+        currentMetadata.setFilePath("stored.pdf");
+        currentMetadata.setContentHash(PDF_HASH);
+        final DocumentConsolidated consolidated = new DocumentConsolidated();
+        consolidated.setDocumentMetadata(currentMetadata);
+        final DocumentNode previousDocumentNode = createSavedNode();
+        consolidated.setDocumentNode(previousDocumentNode);
+        final DocumentNode cachedDocumentNode = new DocumentNode();
+        when(documentConsolidatedService.getEntity(uuid)).thenReturn(consolidated);
+        when(documentMetadataService.build(any(DocumentViewDto.class))).thenReturn(new DocumentMetadata());
+        when(parsedDocumentCache.get(PDF_HASH)).thenReturn(Optional.of(cachedDocumentNode));
+
+        documentService.update(uuid, new DocumentViewDto(), new MockMultipartFile("file", "pdf".getBytes()));
+
+        verify(storageApi, never()).storeFile(any());
+        verify(pdfService, never()).read(any());
+        verify(documentNodeService, never()).parse(any());
+        assertThat(consolidated.getDocumentMetadata().getFilePath()).isEqualTo("stored.pdf");
+        assertThat(consolidated.getDocumentMetadata().getId()).isEqualTo(currentMetadata.getId());
+        assertThat(consolidated.getDocumentMetadata().getVersion()).isEqualTo(currentMetadata.getVersion() + 1);
+        assertThat(consolidated.getDocumentNode()).isSameAs(cachedDocumentNode);
+        verify(documentNodeService).deleteTree(previousDocumentNode.getId());
+        verify(storageApi, never()).deleteFile("stored.pdf");
+    }
+
+    @Test
+    public void updateLargeDocumentWithANewFileDeletesTheReplacedOnesInTheBackground() throws Exception {
+        final UUID uuid = UUID.randomUUID();
+        final DocumentConsolidated consolidated = createSavedConsolidated();
+        final UUID previousRootId = consolidated.getDocumentNode().getId();
+        when(documentConsolidatedService.getEntity(uuid)).thenReturn(consolidated);
+        when(documentMetadataService.build(any(DocumentViewDto.class))).thenReturn(new DocumentMetadata());
+        when(parsedDocumentCache.get(PDF_HASH)).thenReturn(Optional.of(new DocumentNode()));
+        when(storageApi.storeFile(any())).thenReturn("new.pdf");
+        when(documentNodeService.countTree(previousRootId)).thenReturn(ASYNC_DELETION_NODE_THRESHOLD + 1);
+
+        documentService.update(uuid, new DocumentViewDto(), new MockMultipartFile("file", "pdf".getBytes()));
+
+        assertThat(consolidated.getDocumentMetadata().getFilePath()).isEqualTo("new.pdf");
+        verify(documentNodeService, never()).deleteTree(any());
+        final ArgumentCaptor<Runnable> deletion = ArgumentCaptor.forClass(Runnable.class);
+        verify(documentDeletionExecutor).execute(deletion.capture());
+        deletion.getValue().run();
+
+        verify(documentNodeService).deleteTree(previousRootId);
+        verify(storageApi).deleteFile("stored.pdf");
+        verify(storageApi, never()).deleteFile("new.pdf");
+    }
+
+    @Test
+    public void createWithANewFileParsesAndCachesIt() throws Exception {
+        final DocumentNode documentNode = new DocumentNode();
+        final MockMultipartFile file = spy(new MockMultipartFile("file", "pdf".getBytes()));
+        when(storageApi.storeFile(any())).thenReturn("stored.pdf");
+        when(documentMetadataService.build(any(DocumentViewDto.class))).thenReturn(new DocumentMetadata());
+        when(documentMetadataService.findFilePath(PDF_HASH)).thenReturn(Optional.empty());
+        when(parsedDocumentCache.get(PDF_HASH)).thenReturn(Optional.empty());
+        when(documentNodeService.parse(any())).thenReturn(documentNode);
+        when(documentConsolidatedService.saveOne(any(DocumentConsolidated.class))).thenAnswer(invocation -> {
+            final DocumentConsolidated consolidated = invocation.getArgument(0);
+            consolidated.setId(UUID.randomUUID());
+            return consolidated;
+        });
+
+        final DocumentConsolidated saved = documentService.create(new DocumentViewDto(), file);
+
+        // read once, while it was hashed; the storage and the parser read the copy
+        verify(file).getInputStream();
+        assertThat(saved.getDocumentMetadata().getFilePath()).isEqualTo("stored.pdf");
+        assertThat(saved.getDocumentMetadata().getContentHash()).isEqualTo(PDF_HASH);
+        verify(pdfService).read(any());
+        verify(parsedDocumentCache).put(PDF_HASH, documentNode);
+        verify(documentOutlineCache).put(eq(saved.getId()), any(DocumentOutline.class));
+    }
+
+    @Test
+    public void createWithContentStoredForAnotherDocumentSharesItsFile() throws Exception {
+        when(documentMetadataService.build(any(DocumentViewDto.class))).thenReturn(new DocumentMetadata());
+        when(documentMetadataService.findFilePath(PDF_HASH)).thenReturn(Optional.of("shared.pdf"));
+        when(parsedDocumentCache.get(PDF_HASH)).thenReturn(Optional.of(new DocumentNode()));
+        when(documentConsolidatedService.saveOne(any(DocumentConsolidated.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        final DocumentConsolidated saved = documentService.create(new DocumentViewDto(),
+                new MockMultipartFile("file", "pdf".getBytes()));
+
+        verify(storageApi, never()).storeFile(any());
+        assertThat(saved.getDocumentMetadata().getFilePath()).isEqualTo("shared.pdf");
+    }
+
+    @Test
+    public void deleteDocumentKeepsAFileSharedWithAnotherDocument() throws Exception {
+        final UUID uuid = UUID.randomUUID();
+        final DocumentConsolidated consolidated = createSavedConsolidated();
+        when(documentConsolidatedService.getEntity(uuid)).thenReturn(consolidated);
+        when(documentMetadataService.isFileReferenced("stored.pdf")).thenReturn(true);
+
+        documentService.deleteById(uuid);
+
+        verify(documentNodeService).deleteTree(consolidated.getDocumentNode().getId());
+        verify(storageApi, never()).deleteFile(any());
+    }
+
+    @Test
+    public void fetchOutlineOfARecentDocumentReadsNoNodes() {
+        final UUID id = UUID.randomUUID();
+        final DocumentOutline outline = DocumentOutline.of(new DocumentNode());
+        when(documentOutlineCache.get(id)).thenReturn(Optional.of(outline));
+
+        assertThat(documentService.fetchOutline(id)).isSameAs(outline);
+        verify(documentConsolidatedService, never()).getEntity(any());
+        verify(documentNodeService, never()).getOutline(any());
+    }
+
+    @Test
+    public void fetchOutlineOfAnOlderDocumentBuildsAndCachesIt() {
+        final DocumentConsolidated consolidated = createSavedConsolidated();
+        final DocumentOutline outline = DocumentOutline.of(new DocumentNode());
+        when(documentOutlineCache.get(consolidated.getId())).thenReturn(Optional.empty());
+        when(documentConsolidatedService.getEntity(consolidated.getId())).thenReturn(consolidated);
+        when(documentNodeService.getOutline(consolidated.getDocumentNode().getId())).thenReturn(outline);
+
+        assertThat(documentService.fetchOutline(consolidated.getId())).isSameAs(outline);
+        verify(documentOutlineCache).put(consolidated.getId(), outline);
+    }
+
+    private DocumentConsolidated createSavedConsolidated() {
+        final DocumentMetadata metadata = new DocumentMetadata();
+        metadata.setId(UUID.randomUUID());
+        metadata.setFilePath("stored.pdf");
+        final DocumentConsolidated consolidated = new DocumentConsolidated(metadata, createSavedNode());
+        consolidated.setId(UUID.randomUUID());
+        return consolidated;
+    }
+
+    private DocumentNode createSavedNode() {
+        final DocumentNode documentNode = new DocumentNode();
+        documentNode.setId(UUID.randomUUID());
+        return documentNode;
+    }
 }
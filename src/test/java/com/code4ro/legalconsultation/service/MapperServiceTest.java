@@ -0,0 +1,118 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.model.dto.CommentDto;
+import com.code4ro.legalconsultation.model.dto.DocumentNodeDto;
+import com.code4ro.legalconsultation.model.dto.DocumentViewDto;
+import com.code4ro.legalconsultation.model.dto.UserDto;
+import com.code4ro.legalconsultation.model.persistence.Comment;
+import com.code4ro.legalconsultation.model.persistence.DocumentMetadata;
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.model.persistence.User;
+import com.code4ro.legalconsultation.service.api.MapperService;
+import com.code4ro.legalconsultation.service.impl.MapperServiceImpl;
+import com.code4ro.legalconsultation.util.RandomObjectFiller;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MapperServiceTest {
+
+    private final MapperService mapperService = new MapperServiceImpl();
+
+    @Test
+    public void mapUser() {
+        final UserDto userDto = RandomObjectFiller.createAndFill(UserDto.class);
+        userDto.setId(UUID.randomUUID());
+
+        final User user = mapperService.map(userDto, User.class);
+        final UserDto mappedBack = mapperService.map(user, UserDto.class);
+
+        assertThat(user.getId()).isEqualTo(userDto.getId());
+        assertThat(user.getEmail()).isEqualTo(userDto.getEmail());
+        assertThat(user.getRole()).isEqualTo(userDto.getRole());
+        assertThat(mappedBack).isEqualToComparingFieldByField(userDto);
+    }
+
+    @Test
+    public void mapCommentPage() {
+        final Comment comment = new Comment();
+        comment.setId(UUID.randomUUID());
+        comment.setText("text");
+        comment.setLastEditDateTime(new Date());
+        comment.setDocumentNode(new DocumentNode());
+
+        final Page<CommentDto> page = mapperService.mapPage(new PageImpl<>(Collections.singletonList(comment)), CommentDto.class);
+
+        final CommentDto commentDto = page.getContent().get(0);
+        assertThat(commentDto.getId()).isEqualTo(comment.getId());
+        assertThat(commentDto.getText()).isEqualTo(comment.getText());
+        assertThat(commentDto.getLastEditDateTime()).isEqualTo(comment.getLastEditDateTime());
+        final Comment mappedBack = mapperService.map(commentDto, Comment.class);
+        assertThat(mappedBack.getId()).isEqualTo(comment.getId());
+        assertThat(mappedBack.getDocumentNode()).isNull();
+    }
+
+    @Test
+    public void mapDocumentMetadata() {
+        final DocumentViewDto documentViewDto = RandomObjectFiller.createAndFill(DocumentViewDto.class);
+
+        final DocumentMetadata metadata = mapperService.map(documentViewDto, DocumentMetadata.class);
+        final DocumentViewDto mappedBack = mapperService.map(metadata, DocumentViewDto.class);
+
+        assertThat(metadata.getId()).isNull();
+        assertThat(metadata.getFilePath()).isNull();
+        assertThat(metadata.getDocumentTitle()).isEqualTo(documentViewDto.getTitle());
+        assertThat(metadata.getDocumentNumber()).isEqualTo(documentViewDto.getDocumentNumber());
+        assertThat(mappedBack.getTitle()).isEqualTo(documentViewDto.getTitle());
+        assertThat(mappedBack.getDocumentType()).isEqualTo(documentViewDto.getDocumentType());
+        assertThat(mappedBack.getDateOfReceipt()).isEqualTo(documentViewDto.getDateOfReceipt());
+    }
+
+    @Test
+    public void mapDocumentNodeTree() {
+        // a subclass, the way hibernate proxies are
+        final DocumentNode root = new DocumentNode() {
+        };
+        root.setId(UUID.randomUUID());
+        root.setDocumentNodeType(DocumentNodeType.DOCUMENT);
+        final DocumentNode chapter = createNode(DocumentNodeType.CHAPTER);
+        final DocumentNode article = createNode(DocumentNodeType.ARTICLE);
+        article.setCommentCount(2);
+        chapter.setChildren(Collections.singletonList(article));
+        root.setChildren(Arrays.asList(chapter, createNode(DocumentNodeType.CHAPTER)));
+
+        final DocumentNodeDto dto = mapperService.map(root, DocumentNodeDto.class);
+
+        assertThat(dto.getId()).isEqualTo(root.getId());
+        assertThat(dto.getChildren()).hasSize(2);
+        final DocumentNodeDto articleDto = dto.getChildren().get(0).getChildren().get(0);
+        assertThat(articleDto.getId()).isEqualTo(article.getId());
+        assertThat(articleDto.getNumberOfComments()).isEqualTo(BigInteger.valueOf(2));
+        assertThat(articleDto.getChildren()).isEmpty();
+    }
+
+    @Test
+    public void mapNullList() {
+        final List<UserDto> userDtos = mapperService.mapList(null, UserDto.class);
+
+        assertThat(userDtos).isEmpty();
+    }
+
+    private DocumentNode createNode(final DocumentNodeType type) {
+        final DocumentNode node = new DocumentNode();
+        node.setId(UUID.randomUUID());
+        node.setDocumentNodeType(type);
+        node.setTitle(type.name().toLowerCase());
+        return node;
+    }
+}
@@ -0,0 +1,70 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFContent;
+import com.code4ro.legalconsultation.service.impl.pdf.PDFServiceImpl;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.BasicOARPdfReader;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFBoldTextStripperPool;
+import com.code4ro.legalconsultation.service.impl.pdf.reader.PDFExtractionMode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PDFServiceTest {
+    private static final String FILENAME = "rof_2018_pdf_1536138173.pdf";
+    // far smaller than the fixture, so most of it is buffered in the scratch file
+    private static final long MAX_MAIN_MEMORY_BYTES = 64 * 1024;
+
+    private BasicOARPdfReader pdfReader;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void before() {
+        pdfReader = new BasicOARPdfReader(new PDFBoldTextStripperPool(), 4, ForkJoinPool.commonPool());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void readWithBoundedMemory() throws IOException {
+        final File file = new File(getClass().getClassLoader().getResource("pdf/" + FILENAME).getFile());
+        final PDFContent expected;
+        try (PDDocument document = PDDocument.load(file)) {
+            expected = pdfReader.getContent(document);
+        }
+
+        for (final PDFExtractionMode mode : PDFExtractionMode.values()) {
+            final PDFServiceImpl pdfService = new PDFServiceImpl(pdfReader, mode, MAX_MAIN_MEMORY_BYTES, meterRegistry);
+            final PDFContent content = pdfService.read(
+                    new MockMultipartFile("file", FILENAME, "application/pdf", Files.readAllBytes(file.toPath())));
+
+            assertThat(content.getText()).isEqualTo(expected.getText());
+            assertThat(content.getBoldLines()).isEqualTo(expected.getBoldLines());
+        }
+
+        final DistributionSummary allocated = meterRegistry.get("pdf.read.heap.allocation").summary();
+        assertThat(allocated.count()).isEqualTo(2);
+        assertThat(allocated.max()).isPositive();
+    }
+
+    @Test
+    public void readInvalidPdf() {
+        final PDFServiceImpl pdfService =
+                new PDFServiceImpl(pdfReader, PDFExtractionMode.SEQUENTIAL, MAX_MAIN_MEMORY_BYTES, meterRegistry);
+
+        assertThatThrownBy(() -> pdfService.read(
+                new MockMultipartFile("file", "invalid.pdf", "application/pdf", "not a pdf".getBytes())))
+                .isInstanceOf(LegalValidationException.class);
+        assertThat(meterRegistry.get("pdf.read.heap.allocation").summary().count()).isEqualTo(1);
+    }
+}
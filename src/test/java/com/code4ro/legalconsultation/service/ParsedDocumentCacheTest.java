@@ -0,0 +1,63 @@
+package com.code4ro.legalconsultation.service;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.service.impl.pdf.ParsedDocumentCache;
+import com.code4ro.legalconsultation.util.DocumentNodeTreePrinter;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParsedDocumentCacheTest {
+
+    @Test
+    public void getReturnsANewCopyOfTheTree() {
+        final ParsedDocumentCache cache = new ParsedDocumentCache(2);
+        final DocumentNode document = createTree();
+
+        cache.put("hash", document);
+        final DocumentNode first = cache.get("hash").get();
+        final DocumentNode second = cache.get("hash").get();
+
+        assertThat(DocumentNodeTreePrinter.print(first)).isEqualTo(DocumentNodeTreePrinter.print(document));
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getChildren().get(0)).isNotSameAs(second.getChildren().get(0));
+        assertThat(first.getId()).isNull();
+    }
+
+    @Test
+    public void leastRecentlyUsedTreeIsEvicted() {
+        final ParsedDocumentCache cache = new ParsedDocumentCache(2);
+        cache.put("first", createTree());
+        cache.put("second", createTree());
+        cache.get("first");
+        cache.put("third", createTree());
+
+        assertThat(cache.get("first")).isPresent();
+        assertThat(cache.get("second")).isNotPresent();
+        assertThat(cache.get("third")).isPresent();
+    }
+
+    private DocumentNode createTree() {
+        final DocumentNode article = createNode(DocumentNodeType.ARTICLE, "1", null, "Conţinutul articolului");
+        article.setChildren(Collections.emptyList());
+        final DocumentNode chapter = createNode(DocumentNodeType.CHAPTER, "I", "Dispoziţii generale", null);
+        chapter.setChildren(Collections.singletonList(article));
+        final DocumentNode document = createNode(DocumentNodeType.DOCUMENT, null, "Regulament", "Preambul");
+        document.setChildren(Arrays.asList(chapter));
+        return document;
+    }
+
+    private DocumentNode createNode(final DocumentNodeType type, final String identifier,
+                                    final String title, final String content) {
+        final DocumentNode documentNode = new DocumentNode();
+        documentNode.setDocumentNodeType(type);
+        documentNode.setIdentifier(identifier);
+        documentNode.setTitle(title);
+        documentNode.setContent(content);
+        return documentNode;
+    }
+}
@@ -1,6 +1,7 @@
 package com.code4ro.legalconsultation.service;
 
 import com.code4ro.legalconsultation.common.exceptions.LegalValidationException;
+import com.code4ro.legalconsultation.model.dto.CursorPage;
 import com.code4ro.legalconsultation.model.dto.UserDto;
 import com.code4ro.legalconsultation.model.persistence.User;
 import com.code4ro.legalconsultation.model.persistence.UserRole;
@@ -24,6 +25,7 @@ import java.io.IOException;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -89,6 +91,28 @@ public class UserServiceTest {
         verify(userRepository).findAll(pageable);
     }
 
+    @Test
+    public void findAllByCursor() {
+        final List<User> users = Arrays.asList(RandomObjectFiller.createAndFillWithBaseEntity(User.class),
+                RandomObjectFiller.createAndFillWithBaseEntity(User.class));
+        when(userRepository.findFirstKeysetPage(any(Pageable.class))).thenReturn(users);
+        when(userRepository.findKeysetPageAfter(eq(users.get(0).getEmail()), eq(users.get(0).getId()), any(Pageable.class)))
+                .thenReturn(users.subList(1, 2));
+
+        final CursorPage<UserDto> first = userService.findAll(null, 1, false);
+        final CursorPage<UserDto> second = userService.findAll(first.getNext(), 1, false);
+
+        assertThat(first.getContent()).extracting(UserDto::getId).containsExactly(users.get(0).getId());
+        assertThat(second.getContent()).extracting(UserDto::getId).containsExactly(users.get(1).getId());
+        assertThat(second.getNext()).isNull();
+        assertThat(second.getTotalElements()).isNull();
+    }
+
+    @Test(expected = LegalValidationException.class)
+    public void findAllByInvalidCursor() {
+        userService.findAll("not a cursor", 10, false);
+    }
+
     @Test
     public void extractExistingUsersFromCsv() throws IOException {
         final User user = RandomObjectFiller.createAndFill(User.class);
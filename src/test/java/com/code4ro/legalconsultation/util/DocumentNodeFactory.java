@@ -2,6 +2,7 @@ package com.code4ro.legalconsultation.util;
 
 import com.code4ro.legalconsultation.model.persistence.DocumentNode;
 import com.code4ro.legalconsultation.model.persistence.DocumentNodeType;
+import com.code4ro.legalconsultation.repository.DocumentNodeBatchRepository;
 import com.code4ro.legalconsultation.repository.DocumentNodeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -13,9 +14,12 @@ public class DocumentNodeFactory {
 
     @Autowired
     private DocumentNodeRepository documentNodeRepository;
+    @Autowired
+    private DocumentNodeBatchRepository documentNodeBatchRepository;
 
+    // saved the way uploaded documents are
     public DocumentNode save() {
-        return documentNodeRepository.save(create());
+        return documentNodeRepository.getOne(documentNodeBatchRepository.insertTree(create()));
     }
 
     public DocumentNode create() {
@@ -0,0 +1,32 @@
+package com.code4ro.legalconsultation.util;
+
+import com.code4ro.legalconsultation.model.persistence.DocumentNode;
+
+/**
+ * Renders a document node tree as indented text, so whole trees can be compared with a single assertion.
+ */
+public final class DocumentNodeTreePrinter {
+
+    private DocumentNodeTreePrinter() {
+    }
+
+    public static String print(final DocumentNode root) {
+        final StringBuilder builder = new StringBuilder();
+        print(root, 0, builder);
+        return builder.toString();
+    }
+
+    private static void print(final DocumentNode node, final int depth, final StringBuilder builder) {
+        for (int i = 0; i < depth; i++) {
+            builder.append("  ");
+        }
+        builder.append(node.getDocumentNodeType())
+                .append(" | ").append(node.getIdentifier())
+                .append(" | ").append(node.getTitle())
+                .append(" | ").append(node.getContent())
+                .append('\n');
+        if (node.getChildren() != null) {
+            node.getChildren().forEach(child -> print(child, depth + 1, builder));
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.apache.commons.lang3.RandomUtils;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.Size;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.math.BigInteger;
 import java.util.Calendar;
 import java.util.Date;
@@ -18,6 +19,9 @@ public class RandomObjectFiller {
         try {
             final T instance = clazz.getDeclaredConstructor().newInstance();
             for(final Field field: clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
                 field.setAccessible(true);
                 Object value = getRandomValueForField(field);
                 field.set(instance, value);
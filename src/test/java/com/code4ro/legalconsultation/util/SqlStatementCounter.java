@@ -0,0 +1,36 @@
+package com.code4ro.legalconsultation.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL statements Hibernate prepares, so tests can assert how many queries a request runs.
+ * Registered for the whole test context through hibernate.session_factory.statement_inspector.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(final String sql) {
+        STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    public static long count() {
+        return STATEMENTS.size();
+    }
+
+    // statements reading rows of the table itself, not the ones only joining it
+    public static long countSelectsFrom(final String table) {
+        return STATEMENTS.stream()
+                .filter(statement -> statement.contains(" from " + table + " "))
+                .count();
+    }
+}